@@ -0,0 +1,71 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.service.projecao.ColunasLancamentos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregacoes sobre as {@link ColunasLancamentos} de um usuario: o cubo completo (ano, mes, tipo e
+ * status, o mesmo de {@code obterTotaisMensais}) e uma fatia filtrada agrupada so por tipo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class AgregacaoBenchmark {
+
+    private static final Set<DimensaoLancamento> CUBO = EnumSet.allOf(DimensaoLancamento.class);
+
+    private static final FiltroAgregacao EFETIVADOS_2023 = new FiltroAgregacao(2023, null, null, StatusLancamento.EFETIVADO);
+
+    @Param({"1000", "50000"})
+    public int linhas;
+
+    private ColunasLancamentos colunas;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        colunas = new ColunasLancamentos(linhas);
+        for (int i = 0; i < linhas; i++) {
+            colunas.adicionar(new LancamentoEstado((long) i, 1L, 2019 + random.nextInt(5), 1 + random.nextInt(12),
+                    random.nextInt(100) < 20 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA,
+                    StatusLancamento.values()[random.nextInt(StatusLancamento.values().length)],
+                    BigDecimal.valueOf(100 + random.nextInt(500_000), 2)));
+        }
+    }
+
+    @Benchmark
+    public List<GrupoLancamentos> cubo() {
+        return colunas.agregar(FiltroAgregacao.TODOS, CUBO);
+    }
+
+    @Benchmark
+    public List<GrupoLancamentos> filtradoPorTipo() {
+        return colunas.agregar(EFETIVADOS_2023, EnumSet.of(DimensaoLancamento.TIPO));
+    }
+}
@@ -0,0 +1,33 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.FinanceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sobe a aplicacao completa sobre um H2 em memoria, com o schema criado pelas migracoes do Flyway.
+ */
+final class AplicacaoEmbarcada {
+
+    private AplicacaoEmbarcada() {
+    }
+
+    /**
+     * As fontes adicionais entram no mesmo contexto da aplicacao, por exemplo para trocar um bean por um {@code @Primary}.
+     */
+    static ConfigurableApplicationContext iniciar(String nomeBanco, Class<?>... fontes) {
+        return new SpringApplicationBuilder(FinanceApplication.class)
+                .sources(fontes)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + nomeBanco + ";DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS fin",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.schemas=FIN",
+                        "--spring.flyway.default-schema=FIN",
+                        "--spring.cache.type=none",
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,33 @@
+package lab.info.com.finance.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leitura de argumentos no formato {@code --chave=valor} dos programas de carga.
+ */
+final class Argumentos {
+
+    private Argumentos() {
+    }
+
+    static Map<String, String> ler(String[] args) {
+        Map<String, String> argumentos = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento invalido: " + arg + " (use --chave=valor)");
+            }
+            int separador = arg.indexOf('=');
+            argumentos.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+        return argumentos;
+    }
+
+    static String obrigatorio(Map<String, String> argumentos, String chave) {
+        String valor = argumentos.get(chave);
+        if (valor == null) {
+            throw new IllegalArgumentException("Informe --" + chave);
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,30 @@
+package lab.info.com.finance.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada do jar de benchmarks. Aceita os mesmos argumentos do JMH, mas sempre liga o
+ * profiler de GC (taxa de alocacao) e grava o resultado em JSON, para comparar execucoes de commits diferentes.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        OptionsBuilder opcoes = new OptionsBuilder();
+        opcoes.parent(linhaDeComando);
+        opcoes.addProfiler(GCProfiler.class);
+        if (linhaDeComando.getResultFormat().orElse(null) == null) {
+            opcoes.resultFormat(ResultFormatType.JSON);
+        }
+        if (linhaDeComando.getResult().orElse(null) == null) {
+            opcoes.result("benchmarks.json");
+        }
+        Options construidas = opcoes.build();
+        new Runner(construidas).run();
+    }
+}
@@ -0,0 +1,89 @@
+package lab.info.com.finance.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mistura de requisicoes do teste de carga, com o peso de cada endpoint. Os usuarios sao sorteados
+ * com o mesmo vies Zipf da massa gerada, entao os usuarios com mais lancamentos tambem recebem mais trafego.
+ */
+final class CenarioDeCarga {
+
+    record Requisicao(String endpoint, HttpRequest request) {
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String url;
+
+    private final List<GeradorDeDados.UsuarioGerado> usuarios;
+
+    private final double[] acumulado;
+
+    private final Random random;
+
+    CenarioDeCarga(String url, GeradorDeDados.Massa massa, long semente) {
+        this.url = url;
+        this.usuarios = massa.usuarios();
+        this.acumulado = GeradorDeDados.acumular(massa.pesos());
+        this.random = new Random(semente);
+    }
+
+    /**
+     * Sorteia a proxima requisicao. Chamado apenas pela thread que dispara a carga.
+     */
+    Requisicao proxima() {
+        GeradorDeDados.UsuarioGerado usuario = usuario();
+        YearMonth periodo = YearMonth.now().minusMonths(random.nextInt(6));
+        int sorteio = random.nextInt(100);
+        if (sorteio < 35) {
+            return get("GET /api/lancamentos?usuario&tamanho", "/api/lancamentos?usuario=" + usuario.id() + "&tamanho=50");
+        }
+        if (sorteio < 50) {
+            return get("GET /api/lancamentos?usuario&ano&mes", "/api/lancamentos?usuario=" + usuario.id()
+                    + "&ano=" + periodo.getYear() + "&mes=" + periodo.getMonthValue());
+        }
+        if (sorteio < 65 && usuario.lancamentos().length > 0) {
+            return get("GET /api/lancamentos/{id}", "/api/lancamentos/" + lancamento(usuario));
+        }
+        if (sorteio < 80) {
+            return get("GET /api/usuarios/{id}/saldo", "/api/usuarios/" + usuario.id() + "/saldo");
+        }
+        if (sorteio < 90) {
+            String corpo = "{\"descricao\":\"carga " + sorteio + "\",\"mes\":" + periodo.getMonthValue() + ",\"ano\":" + periodo.getYear()
+                    + ",\"usuario\":" + usuario.id() + ",\"valor\":" + (1 + random.nextInt(500)) + ".90,\"tipo\":\"DESPESA\"}";
+            return enviar("POST /api/lancamentos", "POST", "/api/lancamentos", corpo);
+        }
+        if (sorteio < 95 && usuario.lancamentos().length > 0) {
+            return enviar("PUT /api/lancamentos/{id}/atualiza-status", "PUT",
+                    "/api/lancamentos/" + lancamento(usuario) + "/atualiza-status", "{\"status\":\"EFETIVADO\"}");
+        }
+        return enviar("POST /api/usuarios/autenticar", "POST", "/api/usuarios/autenticar",
+                "{\"email\":\"" + usuario.email() + "\",\"senha\":\"" + usuario.senha() + "\"}");
+    }
+
+    private GeradorDeDados.UsuarioGerado usuario() {
+        int posicao = java.util.Arrays.binarySearch(acumulado, random.nextDouble());
+        return usuarios.get(Math.min(posicao < 0 ? -posicao - 1 : posicao, usuarios.size() - 1));
+    }
+
+    private long lancamento(GeradorDeDados.UsuarioGerado usuario) {
+        return usuario.lancamentos()[random.nextInt(usuario.lancamentos().length)];
+    }
+
+    private Requisicao get(String endpoint, String caminho) {
+        return new Requisicao(endpoint, HttpRequest.newBuilder(URI.create(url + caminho)).timeout(TIMEOUT).GET().build());
+    }
+
+    private Requisicao enviar(String endpoint, String metodo, String caminho, String corpo) {
+        return new Requisicao(endpoint, HttpRequest.newBuilder(URI.create(url + caminho))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                .build());
+    }
+}
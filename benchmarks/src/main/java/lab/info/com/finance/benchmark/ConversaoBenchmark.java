@@ -0,0 +1,69 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversoes que o {@code LancamentoResource} faz entre DTO, entidade e projecao, pelos metodos publicos
+ * de {@link LancamentoDTO}. O usuario ja vem resolvido, como no resource depois da busca por id.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ConversaoBenchmark {
+
+    private Usuario usuario;
+
+    private LancamentoDTO dto;
+
+    private Lancamento lancamento;
+
+    private LancamentoProjecao projecao;
+
+    @Setup
+    public void preparar() {
+        usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+        dto = LancamentoDTO.builder().id(10L).descricao("Conta de luz").mes(3).ano(2023).usuario(1L)
+                .valor(new BigDecimal("187.45")).tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).build();
+        lancamento = Lancamento.builder().id(10L).descricao("Conta de luz").mes(3).ano(2023).usuario(usuario)
+                .valor(new BigDecimal("187.45")).dataCadastro(LocalDate.of(2023, 3, 1))
+                .tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).build();
+        projecao = LancamentoProjecao.de(lancamento);
+    }
+
+    @Benchmark
+    public Lancamento converterDtoParaEntidade() {
+        return dto.paraLancamento(usuario);
+    }
+
+    @Benchmark
+    public LancamentoDTO converterEntidadeParaDto() {
+        return LancamentoDTO.de(lancamento);
+    }
+
+    @Benchmark
+    public LancamentoDTO converterProjecaoParaDto() {
+        return LancamentoDTO.de(projecao);
+    }
+}
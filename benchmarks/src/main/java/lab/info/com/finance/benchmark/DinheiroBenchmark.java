@@ -0,0 +1,112 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.valor.Dinheiro;
+import lab.info.com.finance.service.projecao.ProjecaoSaldos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregacao em {@link BigDecimal} contra centavos em {@code long} ({@link Dinheiro}):
+ * <ul>
+ *     <li>{@code saldo*}: receitas menos despesas de um conjunto de linhas ja em memoria;</li>
+ *     <li>{@code projecao*}: replay de eventos do jornal no saldo por usuario, com o merge em
+ *     {@code BigDecimal} que a {@link ProjecaoSaldos} fazia antes e com a projecao atual, em centavos.</li>
+ * </ul>
+ * A alocacao por operacao sai do profiler de GC ligado por {@link Benchmarks}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class DinheiroBenchmark {
+
+    @Param({"100000"})
+    public int linhas;
+
+    private BigDecimal[] valores;
+
+    private long[] centavos;
+
+    private boolean[] receitas;
+
+    private List<EventoLancamento> eventos;
+
+    private ProjecaoSaldos projecao;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        valores = new BigDecimal[linhas];
+        centavos = new long[linhas];
+        receitas = new boolean[linhas];
+        eventos = new ArrayList<>(linhas);
+        for (int i = 0; i < linhas; i++) {
+            valores[i] = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            centavos[i] = Dinheiro.centavos(valores[i]);
+            receitas[i] = random.nextInt(100) < 20;
+            eventos.add(EventoLancamento.builder().idUsuario(1L + random.nextInt(1_000))
+                    .tipo(receitas[i] ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                    .status(StatusLancamento.EFETIVADO).valor(valores[i]).sinal(1).build());
+        }
+        projecao = new ProjecaoSaldos();
+    }
+
+    @Benchmark
+    public BigDecimal saldoBigDecimal() {
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (int i = 0; i < linhas; i++) {
+            saldo = receitas[i] ? saldo.add(valores[i]) : saldo.subtract(valores[i]);
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public long saldoCentavos() {
+        long saldo = 0;
+        for (int i = 0; i < linhas; i++) {
+            saldo = receitas[i] ? Dinheiro.somar(saldo, centavos[i]) : Dinheiro.subtrair(saldo, centavos[i]);
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> projecaoBigDecimal() {
+        Map<Long, BigDecimal> saldos = new HashMap<>();
+        for (EventoLancamento evento : eventos) {
+            BigDecimal efeito = evento.getTipo() == TipoLancamento.RECEITA ? evento.getValor() : evento.getValor().negate();
+            saldos.merge(evento.getIdUsuario(), evento.getSinal() < 0 ? efeito.negate() : efeito, BigDecimal::add);
+        }
+        return saldos;
+    }
+
+    @Benchmark
+    public ProjecaoSaldos projecaoCentavos() {
+        projecao.limpar();
+        for (EventoLancamento evento : eventos) {
+            projecao.aplicar(evento);
+        }
+        return projecao;
+    }
+}
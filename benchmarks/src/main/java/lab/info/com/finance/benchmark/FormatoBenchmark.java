@@ -0,0 +1,119 @@
+package lab.info.com.finance.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.config.FormatosBinariosConfig;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de serializar e desserializar uma pagina de LancamentoDTO em JSON, CBOR e Smile, com os
+ * mapeadores montados como na aplicacao ({@link FormatosBinariosConfig}). O tamanho por linha de cada
+ * formato sai do {@code main}:
+ *
+ * <pre>
+ * java -cp benchmarks.jar lab.info.com.finance.benchmark.FormatoBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class FormatoBenchmark {
+
+    private static final String[] DESCRICOES = {"mercado", "aluguel", "conta de luz", "internet", "farmácia",
+            "restaurante", "combustível", "salário", "academia", "streaming"};
+
+    @Param({"json", "cbor", "smile"})
+    public String formato;
+
+    @Param({"1000"})
+    public int linhas;
+
+    private ObjectMapper mapeador;
+
+    private CollectionType tipoLista;
+
+    private List<LancamentoDTO> pagina;
+
+    private byte[] serializada;
+
+    @Setup
+    public void preparar() throws IOException {
+        mapeador = mapeador(formato);
+        tipoLista = mapeador.getTypeFactory().constructCollectionType(List.class, LancamentoDTO.class);
+        pagina = gerar(linhas);
+        serializada = mapeador.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return mapeador.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public List<LancamentoDTO> desserializar() throws IOException {
+        return mapeador.readValue(serializada, tipoLista);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<LancamentoDTO> pagina = gerar(1000);
+        for (String formato : List.of("json", "cbor", "smile")) {
+            int bytes = mapeador(formato).writeValueAsBytes(pagina).length;
+            System.out.printf("%-5s %8d bytes  %6.1f bytes/linha%n", formato, bytes, bytes / (double) pagina.size());
+        }
+    }
+
+    static ObjectMapper mapeador(String formato) {
+        // mesmas datas do ObjectMapper do Spring Boot
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return switch (formato) {
+            case "json" -> builder.build();
+            case "cbor" -> FormatosBinariosConfig.cbor(builder);
+            case "smile" -> FormatosBinariosConfig.smile(builder);
+            default -> throw new IllegalArgumentException("Formato desconhecido: " + formato);
+        };
+    }
+
+    static List<LancamentoDTO> gerar(int linhas) {
+        Random random = new Random(42);
+        List<LancamentoDTO> pagina = new ArrayList<>(linhas);
+        for (int i = 0; i < linhas; i++) {
+            boolean receita = random.nextInt(100) < 20;
+            int mes = 1 + random.nextInt(12);
+            pagina.add(LancamentoDTO.builder().id(100_000L + i).descricao(DESCRICOES[random.nextInt(DESCRICOES.length)])
+                    .mes(mes).ano(2023).usuario(1L)
+                    .valor(BigDecimal.valueOf(100 + random.nextInt(500_000), 2))
+                    .dataCadastro(LocalDate.of(2023, mes, 1 + random.nextInt(28)))
+                    .tipo(receita ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                    .status(StatusLancamento.values()[random.nextInt(StatusLancamento.values().length)])
+                    .build());
+        }
+        return pagina;
+    }
+}
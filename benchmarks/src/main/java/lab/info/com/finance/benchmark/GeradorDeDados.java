@@ -0,0 +1,289 @@
+package lab.info.com.finance.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Gera usuarios e lancamentos com distribuicoes enviesadas, gravando por JDBC em lotes:
+ * <ul>
+ *     <li>lancamentos por usuario seguem uma Zipf, entao poucos usuarios concentram a maior parte;</li>
+ *     <li>os meses recentes sao mais frequentes que os antigos (decaimento geometrico em 5 anos);</li>
+ *     <li>20% sao receitas, com valores maiores; valores seguem uma log-normal;</li>
+ *     <li>lancamentos antigos estao quase todos efetivados, os do mes corrente em sua maioria pendentes;</li>
+ *     <li>as descricoes sorteiam termos de um vocabulario tambem com frequencia Zipf.</li>
+ * </ul>
+ * Os ids de lancamento sao reservados na propria lancamento_seq, do mesmo jeito que o Hibernate
+ * faz, entao a aplicacao pode continuar gravando na mesma base. Cada lancamento gerado entra tambem
+ * no jornal como criado; uma instancia ja no ar so os enxerga nas projecoes em memoria depois de
+ * reiniciada, quando o jornal e reaplicado.
+ *
+ * <pre>
+ * java -cp benchmarks.jar lab.info.com.finance.benchmark.GeradorDeDados \
+ *     --jdbc-url=jdbc:postgresql://localhost:5432/finance --jdbc-usuario=postgres --jdbc-senha=123456 \
+ *     --usuarios=1000 --lancamentos=1000000
+ * </pre>
+ */
+public class GeradorDeDados {
+
+    private static final int LOTE = 1000;
+
+    // mesmo incremento de lancamento_seq e do allocationSize de Lancamento
+    private static final int IDS_POR_SEQUENCIA = 50;
+
+    private static final int MESES = 60;
+
+    private static final String[] TERMOS = {
+            "mercado", "aluguel", "salário", "conta", "luz", "água", "internet", "farmácia", "combustível",
+            "restaurante", "padaria", "academia", "escola", "condomínio", "transporte", "uber", "cinema",
+            "presente", "viagem", "hotel", "seguro", "carro", "manutenção", "telefone", "streaming", "livros",
+            "roupas", "médico", "dentista", "pet", "investimento", "dividendos", "freelance", "reembolso",
+            "imposto", "iptu", "ipva", "cartão", "parcela", "doação"};
+
+    private final String jdbcUrl;
+
+    private final String usuario;
+
+    private final String senha;
+
+    private final Random random;
+
+    public GeradorDeDados(String jdbcUrl, String usuario, String senha, long semente) {
+        this.jdbcUrl = jdbcUrl;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.random = new Random(semente);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> argumentos = Argumentos.ler(args);
+        GeradorDeDados gerador = new GeradorDeDados(
+                Argumentos.obrigatorio(argumentos, "jdbc-url"),
+                argumentos.getOrDefault("jdbc-usuario", "postgres"),
+                argumentos.getOrDefault("jdbc-senha", ""),
+                Long.parseLong(argumentos.getOrDefault("semente", "42")));
+        long inicio = System.nanoTime();
+        Massa massa = gerador.gerar(
+                Integer.parseInt(argumentos.getOrDefault("usuarios", "100")),
+                Integer.parseInt(argumentos.getOrDefault("lancamentos", "100000")),
+                argumentos.getOrDefault("prefixo", "carga" + System.currentTimeMillis()));
+        System.out.printf("%d usuarios e %d lancamentos gerados em %d ms%n", massa.usuarios().size(),
+                massa.totalLancamentos(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Usuario gerado, com a senha em claro para o cenario de carga autenticar, e uma amostra
+     * dos ids dos seus lancamentos.
+     */
+    public record UsuarioGerado(long id, String email, String senha, long[] lancamentos) {
+    }
+
+    public record Massa(List<UsuarioGerado> usuarios, int totalLancamentos, double[] pesos) {
+    }
+
+    /**
+     * Gera {@code quantidadeUsuarios} usuarios com emails comecando por {@code prefixo} e distribui
+     * entre eles {@code quantidadeLancamentos} lancamentos.
+     */
+    public Massa gerar(int quantidadeUsuarios, int quantidadeLancamentos, String prefixo) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(jdbcUrl, usuario, senha)) {
+            conexao.setAutoCommit(false);
+            List<Long> ids = inserirUsuarios(conexao, quantidadeUsuarios, prefixo);
+            double[] pesos = zipf(quantidadeUsuarios, 1.1);
+            double[] acumulado = acumular(pesos);
+            double[] acumuladoTermos = acumular(zipf(TERMOS.length, 1.0));
+
+            Map<Long, List<Long>> amostras = new HashMap<>();
+            PreparedStatement insert = conexao.prepareStatement("insert into fin.lancamento " +
+                    "(id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status) values (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            YearMonth atual = YearMonth.now();
+            long[] faixa = {0, -1};
+            for (int i = 0; i < quantidadeLancamentos; i++) {
+                long id = proximoId(conexao, faixa);
+                long idUsuario = ids.get(sortear(acumulado));
+                int mesesAtras = mesesAtras();
+                YearMonth periodo = atual.minusMonths(mesesAtras);
+                boolean receita = random.nextInt(100) < 20;
+
+                insert.setLong(1, id);
+                insert.setString(2, descricao(acumuladoTermos));
+                insert.setInt(3, periodo.getMonthValue());
+                insert.setInt(4, periodo.getYear());
+                insert.setLong(5, idUsuario);
+                insert.setBigDecimal(6, valor(receita));
+                insert.setTimestamp(7, Timestamp.valueOf(LocalDateTime.of(periodo.getYear(), periodo.getMonthValue(), 1, 0, 0)));
+                insert.setString(8, receita ? "RECEITA" : "DESPESA");
+                insert.setString(9, status(mesesAtras));
+                insert.addBatch();
+
+                List<Long> amostra = amostras.computeIfAbsent(idUsuario, chave -> new ArrayList<>());
+                if (amostra.size() < 100) {
+                    amostra.add(id);
+                }
+                if ((i + 1) % LOTE == 0) {
+                    insert.executeBatch();
+                    conexao.commit();
+                }
+            }
+            insert.executeBatch();
+            conexao.commit();
+            insert.close();
+            registrarNoJornal(conexao, prefixo);
+
+            List<UsuarioGerado> usuarios = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                long[] lancamentos = amostras.getOrDefault(ids.get(i), List.of()).stream().mapToLong(Long::longValue).toArray();
+                usuarios.add(new UsuarioGerado(ids.get(i), email(prefixo, i), "senha" + i, lancamentos));
+            }
+            return new Massa(usuarios, quantidadeLancamentos, pesos);
+        }
+    }
+
+    private List<Long> inserirUsuarios(Connection conexao, int quantidade, String prefixo) throws SQLException {
+        try (PreparedStatement insert = conexao.prepareStatement("insert into fin.usuario (nome, email, senha) values (?, ?, ?)")) {
+            for (int i = 0; i < quantidade; i++) {
+                insert.setString(1, "usuario " + i);
+                insert.setString(2, email(prefixo, i));
+                insert.setString(3, "senha" + i);
+                insert.addBatch();
+                if ((i + 1) % LOTE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        conexao.commit();
+
+        Map<String, Long> porEmail = new HashMap<>();
+        try (PreparedStatement select = conexao.prepareStatement("select id, email from fin.usuario where email like ?")) {
+            select.setString(1, prefixo + "-%");
+            try (ResultSet resultado = select.executeQuery()) {
+                while (resultado.next()) {
+                    porEmail.put(resultado.getString(2), resultado.getLong(1));
+                }
+            }
+        }
+        List<Long> ids = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            ids.add(porEmail.get(email(prefixo, i)));
+        }
+        return ids;
+    }
+
+    /**
+     * Acrescenta ao jornal os lancamentos dos usuarios gerados, como a migracao V5_1 faz com os
+     * lancamentos anteriores a ele.
+     */
+    private void registrarNoJornal(Connection conexao, String prefixo) throws SQLException {
+        String proximoId = conexao.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL")
+                ? "nextval('fin.evento_lancamento_seq')"
+                : "next value for fin.evento_lancamento_seq";
+        try (PreparedStatement insert = conexao.prepareStatement("insert into fin.evento_lancamento " +
+                "(id, tipo_evento, id_lancamento, id_usuario, ano, mes, tipo, status, valor, sinal, data_evento) " +
+                "select " + proximoId + ", 'CRIADO', l.id, l.id_usuario, l.ano, l.mes, l.tipo, l.status, l.valor, 1, l.data_cadastro " +
+                "from fin.lancamento l join fin.usuario u on u.id = l.id_usuario where u.email like ?")) {
+            insert.setString(1, prefixo + "-%");
+            insert.executeUpdate();
+        }
+        conexao.commit();
+    }
+
+    /**
+     * Entrega ids da faixa reservada e, quando ela acaba, reserva a proxima com um nextval, que
+     * como no otimizador pooled do Hibernate vale pelos 50 ids que terminam nele.
+     */
+    private long proximoId(Connection conexao, long[] faixa) throws SQLException {
+        if (faixa[0] > faixa[1]) {
+            String sql = conexao.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL")
+                    ? "select nextval('fin.lancamento_seq')"
+                    : "select next value for fin.lancamento_seq";
+            try (Statement statement = conexao.createStatement(); ResultSet resultado = statement.executeQuery(sql)) {
+                resultado.next();
+                long fim = resultado.getLong(1);
+                faixa[0] = Math.max(1, fim - IDS_POR_SEQUENCIA + 1);
+                faixa[1] = fim;
+            }
+        }
+        return faixa[0]++;
+    }
+
+    private int mesesAtras() {
+        // geometrica truncada: cerca de metade dos lancamentos cai nos ultimos 17 meses
+        int meses = (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - 0.04));
+        return Math.min(meses, MESES - 1);
+    }
+
+    private String status(int mesesAtras) {
+        int sorteio = random.nextInt(100);
+        if (mesesAtras == 0) {
+            return sorteio < 60 ? "PENDENTE" : sorteio < 95 ? "EFETIVADO" : "CANCELADO";
+        }
+        if (mesesAtras < 3) {
+            return sorteio < 15 ? "PENDENTE" : sorteio < 93 ? "EFETIVADO" : "CANCELADO";
+        }
+        return sorteio < 2 ? "PENDENTE" : sorteio < 90 ? "EFETIVADO" : "CANCELADO";
+    }
+
+    private BigDecimal valor(boolean receita) {
+        double media = receita ? 7.5 : 4.5;
+        double valor = Math.exp(media + random.nextGaussian() * 1.1);
+        return BigDecimal.valueOf(Math.max(1, Math.round(Math.min(valor, 1_000_000) * 100)), 2);
+    }
+
+    private String descricao(double[] acumuladoTermos) {
+        int palavras = 1 + random.nextInt(3);
+        StringBuilder descricao = new StringBuilder(TERMOS[sortear(acumuladoTermos)]);
+        for (int i = 1; i < palavras; i++) {
+            descricao.append(' ').append(TERMOS[sortear(acumuladoTermos)]);
+        }
+        if (random.nextInt(10) == 0) {
+            descricao.append(' ').append(1 + random.nextInt(12)).append("/12");
+        }
+        return descricao.toString();
+    }
+
+    private int sortear(double[] acumulado) {
+        int posicao = Arrays.binarySearch(acumulado, random.nextDouble());
+        return Math.min(posicao < 0 ? -posicao - 1 : posicao, acumulado.length - 1);
+    }
+
+    static double[] zipf(int tamanho, double expoente) {
+        double[] pesos = new double[tamanho];
+        double total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            pesos[i] = 1 / Math.pow(i + 1, expoente);
+            total += pesos[i];
+        }
+        for (int i = 0; i < tamanho; i++) {
+            pesos[i] /= total;
+        }
+        return pesos;
+    }
+
+    static double[] acumular(double[] pesos) {
+        double[] acumulado = new double[pesos.length];
+        double soma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            soma += pesos[i];
+            acumulado[i] = soma;
+        }
+        return acumulado;
+    }
+
+    private static String email(String prefixo, int indice) {
+        return prefixo + "-" + indice + "@email.com";
+    }
+}
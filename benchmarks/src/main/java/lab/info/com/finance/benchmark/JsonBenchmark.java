@@ -0,0 +1,78 @@
+package lab.info.com.finance.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacao Jackson da entidade Lancamento (que leva o Usuario junto) e do LancamentoDTO,
+ * com a mesma configuracao de datas do ObjectMapper do Spring Boot.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Lancamento lancamento;
+
+    private LancamentoDTO dto;
+
+    private byte[] dtoSerializado;
+
+    @Setup
+    public void preparar() throws JsonProcessingException {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").senha("senha").build();
+        lancamento = Lancamento.builder().id(10L).descricao("Conta de luz").mes(3).ano(2023).usuario(usuario)
+                .valor(new BigDecimal("187.45")).dataCadastro(LocalDate.of(2023, 3, 1))
+                .tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).build();
+        dto = LancamentoDTO.builder().id(10L).descricao("Conta de luz").mes(3).ano(2023).usuario(1L)
+                .valor(new BigDecimal("187.45")).dataCadastro(LocalDate.of(2023, 3, 1))
+                .tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).build();
+        dtoSerializado = objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializarLancamento() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lancamento);
+    }
+
+    @Benchmark
+    public byte[] serializarLancamentoDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public LancamentoDTO desserializarLancamentoDTO() throws IOException {
+        return objectMapper.readValue(dtoSerializado, LancamentoDTO.class);
+    }
+}
@@ -0,0 +1,64 @@
+package lab.info.com.finance.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera lancamentos direto por JDBC em lotes. A semente e fixa para que a mesma massa seja
+ * gerada em todas as execucoes e os resultados possam ser comparados entre commits.
+ */
+final class MassaDeDados {
+
+    private static final int LOTE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    private long proximoId = 1;
+
+    MassaDeDados(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    long inserirUsuario(String email) {
+        jdbcTemplate.update("insert into fin.usuario (nome, email, senha) values (?, ?, ?)", "usuario", email, "senha");
+        return jdbcTemplate.queryForObject("select id from fin.usuario where email = ?", Long.class, email);
+    }
+
+    /**
+     * Insere {@code quantidade} lancamentos do usuario entre 2020 e 2023: 30% receitas, e 60% efetivados,
+     * 30% pendentes e 10% cancelados.
+     */
+    void inserirLancamentos(long idUsuario, int quantidade) {
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        Timestamp cadastro = Timestamp.valueOf(LocalDateTime.of(2023, 1, 1, 0, 0));
+        for (int i = 0; i < quantidade; i++) {
+            int sorteio = random.nextInt(10);
+            String status = sorteio < 6 ? "EFETIVADO" : sorteio < 9 ? "PENDENTE" : "CANCELADO";
+            String tipo = random.nextInt(10) < 3 ? "RECEITA" : "DESPESA";
+            BigDecimal valor = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            lote.add(new Object[]{proximoId++, "lancamento " + i, 1 + random.nextInt(12), 2020 + random.nextInt(4),
+                    idUsuario, valor, cadastro, tipo, status});
+            if (lote.size() == LOTE) {
+                gravar(lote);
+            }
+        }
+        gravar(lote);
+    }
+
+    private void gravar(List<Object[]> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into fin.lancamento (id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", lote);
+        lote.clear();
+    }
+}
@@ -0,0 +1,76 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.model.entity.SaldoUsuario;
+import lab.info.com.finance.model.repository.SaldoUsuarioRepository;
+import lab.info.com.finance.service.LancamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code obterSaldoPorUsuario} com o saldo materializado e o recalculo pela soma dos lancamentos,
+ * sobre um H2 com o usuario medido e mais 50 usuarios de 2000 lancamentos cada.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SaldoBenchmark {
+
+    @Param({"1000", "100000"})
+    private int lancamentosDoUsuario;
+
+    private ConfigurableApplicationContext contexto;
+
+    private LancamentoService service;
+
+    private long idUsuario;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = AplicacaoEmbarcada.iniciar("saldo");
+        service = contexto.getBean(LancamentoService.class);
+
+        MassaDeDados massa = new MassaDeDados(contexto.getBean(JdbcTemplate.class));
+        idUsuario = massa.inserirUsuario("medido@email.com");
+        massa.inserirLancamentos(idUsuario, lancamentosDoUsuario);
+        for (int i = 0; i < 50; i++) {
+            massa.inserirLancamentos(massa.inserirUsuario("usuario" + i + "@email.com"), 2000);
+        }
+
+        BigDecimal saldo = service.recalcularSaldoPorUsuario(idUsuario);
+        contexto.getBean(SaldoUsuarioRepository.class).save(SaldoUsuario.builder().idUsuario(idUsuario).valor(saldo).build());
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public BigDecimal obterSaldoMaterializado() {
+        return service.obterSaldoPorUsuario(idUsuario);
+    }
+
+    @Benchmark
+    public BigDecimal recalcularSaldo() {
+        return service.recalcularSaldoPorUsuario(idUsuario);
+    }
+}
@@ -0,0 +1,143 @@
+package lab.info.com.finance.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga de ponta a ponta em taxa fixa (carga aberta) sobre LancamentoResource e UsuarioResource.
+ * Gera a massa com {@link GeradorDeDados}, aquece, mede e imprime os percentis de latencia por endpoint.
+ * A latencia e contada a partir do instante em que a requisicao deveria ter saido, entao um servidor
+ * lento nao reduz a carga nem esconde a fila que se forma.
+ *
+ * <p>Sem {@code --url}, sobe a aplicacao neste processo sobre H2 em memoria. Para medir contra um
+ * PostgreSQL local, suba a aplicacao e informe a URL e o JDBC da mesma base:
+ *
+ * <pre>
+ * java -cp benchmarks.jar lab.info.com.finance.benchmark.TesteDeCarga --taxa=300 --duracao=120 \
+ *     --url=http://localhost:8080 --jdbc-url=jdbc:postgresql://localhost:5432/finance --jdbc-usuario=postgres --jdbc-senha=123456
+ * </pre>
+ */
+public class TesteDeCarga {
+
+    private static final long LATENCIA_MAXIMA = TimeUnit.SECONDS.toNanos(60);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> argumentos = Argumentos.ler(args);
+        int taxa = Integer.parseInt(argumentos.getOrDefault("taxa", "200"));
+        Duration duracao = Duration.ofSeconds(Long.parseLong(argumentos.getOrDefault("duracao", "60")));
+        Duration aquecimento = Duration.ofSeconds(Long.parseLong(argumentos.getOrDefault("aquecimento", "10")));
+        long semente = Long.parseLong(argumentos.getOrDefault("semente", "42"));
+
+        ConfigurableApplicationContext contexto = null;
+        String url = argumentos.get("url");
+        GeradorDeDados gerador;
+        if (url == null) {
+            contexto = AplicacaoEmbarcada.iniciar("carga");
+            url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            gerador = new GeradorDeDados("jdbc:h2:mem:carga", "sa", "", semente);
+        } else {
+            gerador = new GeradorDeDados(Argumentos.obrigatorio(argumentos, "jdbc-url"),
+                    argumentos.getOrDefault("jdbc-usuario", "postgres"), argumentos.getOrDefault("jdbc-senha", ""), semente);
+        }
+
+        try {
+            GeradorDeDados.Massa massa = gerador.gerar(
+                    Integer.parseInt(argumentos.getOrDefault("usuarios", "50")),
+                    Integer.parseInt(argumentos.getOrDefault("lancamentos", "50000")),
+                    "carga" + System.currentTimeMillis());
+            if (contexto != null) {
+                // a massa foi gravada por fora da aplicacao embarcada; o jornal so e reaplicado na subida,
+                // entao ela e reiniciada sobre o mesmo H2 (DB_CLOSE_DELAY=-1 o mantem vivo entre os contextos)
+                contexto.close();
+                contexto = AplicacaoEmbarcada.iniciar("carga");
+                url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            }
+            CenarioDeCarga cenario = new CenarioDeCarga(url, massa, semente);
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            System.out.printf("Aquecendo por %ds a %d req/s em %s%n", aquecimento.toSeconds(), taxa, url);
+            executar(cliente, cenario, taxa, aquecimento);
+            System.out.printf("Medindo por %ds a %d req/s%n", duracao.toSeconds(), taxa);
+            long inicio = System.nanoTime();
+            Map<String, Estatistica> estatisticas = executar(cliente, cenario, taxa, duracao);
+            imprimir(estatisticas, System.nanoTime() - inicio);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private static Map<String, Estatistica> executar(HttpClient cliente, CenarioDeCarga cenario, int taxa, Duration duracao)
+            throws InterruptedException {
+        Map<String, Estatistica> estatisticas = new ConcurrentHashMap<>();
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+        int total = (int) (taxa * duracao.toSeconds());
+        CountDownLatch concluidas = new CountDownLatch(total);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long previsto = inicio + i * intervalo;
+            long espera = previsto - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            CenarioDeCarga.Requisicao requisicao = cenario.proxima();
+            Estatistica estatistica = estatisticas.computeIfAbsent(requisicao.endpoint(), endpoint -> new Estatistica());
+            cliente.sendAsync(requisicao.request(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        estatistica.registrar(System.nanoTime() - previsto, erro != null || resposta.statusCode() >= 400);
+                        concluidas.countDown();
+                    });
+        }
+        if (!concluidas.await(LATENCIA_MAXIMA, TimeUnit.NANOSECONDS)) {
+            System.out.printf("%d requisicoes sem resposta ao fim da fase%n", concluidas.getCount());
+        }
+        return estatisticas;
+    }
+
+    private static void imprimir(Map<String, Estatistica> estatisticas, long duracao) {
+        System.out.printf("%n%-45s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "total", "erros", "p50", "p90", "p99", "p99.9", "max");
+        long total = 0;
+        for (Map.Entry<String, Estatistica> entrada : new TreeMap<>(estatisticas).entrySet()) {
+            Histogram histograma = entrada.getValue().histograma;
+            total += histograma.getTotalCount();
+            System.out.printf("%-45s %8d %7d %9s %9s %9s %9s %9s%n", entrada.getKey(), histograma.getTotalCount(),
+                    entrada.getValue().erros.get(),
+                    ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(90)),
+                    ms(histograma.getValueAtPercentile(99)), ms(histograma.getValueAtPercentile(99.9)),
+                    ms(histograma.getMaxValue()));
+        }
+        System.out.printf("%nlatencias em ms; %d requisicoes, %.1f req/s efetivas%n", total, total / (duracao / 1e9));
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static final class Estatistica {
+
+        private final Histogram histograma = new ConcurrentHistogram(LATENCIA_MAXIMA, 3);
+
+        private final AtomicLong erros = new AtomicLong();
+
+        void registrar(long latencia, boolean erro) {
+            histograma.recordValue(Math.min(latencia, LATENCIA_MAXIMA));
+            if (erro) {
+                erros.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package lab.info.com.finance.benchmark;
+
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Fechamento;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.projection.SaldoMensal;
+import lab.info.com.finance.service.FechamentoService;
+import lab.info.com.finance.service.LancamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de {@code LancamentoService.validar}, no bean montado pelo Spring, para um lancamento valido e para um
+ * que falha na ultima regra, o caso mais caro por percorrer todas as verificacoes e criar a excecao.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ValidacaoBenchmark {
+
+    private ConfigurableApplicationContext contexto;
+
+    private LancamentoService service;
+
+    private Lancamento valido;
+
+    private Lancamento semTipo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        // o periodo fechado fica fora da medicao: o FechamentoService do contexto e trocado por PeriodosAbertos
+        contexto = AplicacaoEmbarcada.iniciar("validacao", ContextoValidacao.class);
+        // o alvo sem o proxy: o aspecto de metricas nao faz parte das regras medidas
+        service = (LancamentoService) AopProxyUtils.getSingletonTarget(contexto.getBean(LancamentoService.class));
+        Usuario usuario = Usuario.builder().id(1L).build();
+        valido = Lancamento.builder().descricao("Conta de luz").mes(3).ano(2023).usuario(usuario)
+                .valor(new BigDecimal("187.45")).tipo(TipoLancamento.DESPESA).build();
+        semTipo = Lancamento.builder().descricao("Conta de luz").mes(3).ano(2023).usuario(usuario)
+                .valor(new BigDecimal("187.45")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    /**
+     * Registrada apenas por {@link AplicacaoEmbarcada#iniciar}; sem {@code @Configuration}
+     * para nao entrar na varredura de componentes dos outros contextos embarcados.
+     */
+    static class ContextoValidacao {
+
+        @Bean
+        @Primary
+        FechamentoService periodosAbertos() {
+            return new PeriodosAbertos();
+        }
+    }
+
+    /**
+     * Considera todos os meses abertos, sem consultar o banco.
+     */
+    private static class PeriodosAbertos implements FechamentoService {
+
+        @Override
+        public Fechamento fechar(Long idUsuario, Integer ano, Integer mes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<YearMonth> obterUltimoPeriodoFechado(Long idUsuario) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void verificarPeriodosAbertos(Collection<LancamentoEstado> estados) {
+        }
+
+        @Override
+        public BigDecimal calcularSaldo(Long idUsuario) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<TotalPeriodo> obterTotaisMensais(Long idUsuario) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SaldoMensal> obterEvolucaoSaldo(Long idUsuario, YearMonth inicio, YearMonth fim) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Benchmark
+    public Lancamento validarLancamentoValido() {
+        service.validar(valido);
+        return valido;
+    }
+
+    @Benchmark
+    public RegraNegocioException validarLancamentoInvalido() {
+        try {
+            service.validar(semTipo);
+            return null;
+        } catch (RegraNegocioException e) {
+            return e;
+        }
+    }
+}
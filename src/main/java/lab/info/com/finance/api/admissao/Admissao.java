@@ -0,0 +1,30 @@
+package lab.info.com.finance.api.admissao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Classe de carga de um endpoint. Sem a anotacao, GET conta como {@link ClasseRequisicao#LEITURA_LEVE}
+ * e os demais metodos como {@link ClasseRequisicao#ESCRITA}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Admissao {
+
+    ClasseRequisicao value();
+
+    /**
+     * Endpoint com ETag de versao: uma requisicao condicional passa antes pela {@link Revalidacao} e,
+     * se o If-None-Match ainda vale, sai com 304 sem gastar fichas nem vaga da classe.
+     */
+    boolean revalidarAntes() default false;
+
+    /**
+     * Em respostas assincronas a vaga normalmente fica presa ate o fim da resposta, como no streaming
+     * da exportacao, que le do banco depois de liberar a thread do servlet. Com {@code true} ela e
+     * devolvida ja na liberacao da thread, para esperas que nao seguram conexao.
+     */
+    boolean liberarNaEspera() default false;
+}
@@ -0,0 +1,207 @@
+package lab.info.com.finance.api.admissao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lab.info.com.finance.config.AdmissaoProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Controle de admissao da API, antes de a requisicao pegar uma conexao do pool:
+ * <ul>
+ *     <li>cada cliente tem um balde de fichas; esgotado, a resposta e 429 com o Retry-After de quando
+ *     havera fichas de novo. Leituras pesadas custam mais fichas;</li>
+ *     <li>cada {@link ClasseRequisicao} tem um numero maximo de requisicoes em andamento (bulkhead). A
+ *     requisicao espera por uma vaga no maximo {@code espera-maxima}; depois disso, 503.</li>
+ * </ul>
+ * O cliente e o endereco remoto, nunca um id enviado na propria requisicao, que qualquer um poderia
+ * trocar para esvaziar o balde de outro ou fugir do seu. Atras de proxy, o endereco vem do
+ * X-Forwarded-For ({@code server.forward-headers-strategy}), senao todos dividiriam o balde do proxy.
+ * <p>
+ * Em requisicoes assincronas a vaga so e devolvida quando a resposta termina, a menos que o endpoint
+ * indique {@link Admissao#liberarNaEspera()}.
+ */
+public class AdmissaoInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String VAGA = AdmissaoInterceptor.class.getName() + ".VAGA";
+
+    private AdmissaoProperties properties;
+
+    private Cache<String, BaldeDeFichas> baldes;
+
+    private Map<ClasseRequisicao, Semaphore> vagas = new EnumMap<>(ClasseRequisicao.class);
+
+    private Map<ClasseRequisicao, Timer> esperas = new EnumMap<>(ClasseRequisicao.class);
+
+    private MeterRegistry registry;
+
+    private Revalidacao revalidacao;
+
+    public AdmissaoInterceptor(AdmissaoProperties properties, MeterRegistry registry, Revalidacao revalidacao) {
+        this.properties = properties;
+        this.registry = registry;
+        this.revalidacao = revalidacao;
+        // baldes cheios de usuarios inativos nao precisam ser lembrados
+        this.baldes = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .maximumSize(100_000)
+                .build();
+        for (ClasseRequisicao classe : ClasseRequisicao.values()) {
+            int concorrencia = properties.limite(classe).concorrencia();
+            String tag = classe.name().toLowerCase();
+            if (concorrencia > 0) {
+                Semaphore semaforo = new Semaphore(concorrencia, true);
+                vagas.put(classe, semaforo);
+                Gauge.builder("finance.admissao.ocupadas", semaforo, s -> concorrencia - s.availablePermits())
+                        .description("Requisicoes em andamento na classe")
+                        .tag("classe", tag)
+                        .register(registry);
+            }
+            esperas.put(classe, Timer.builder("finance.admissao.espera")
+                    .description("Espera por uma vaga da classe antes de executar")
+                    .tag("classe", tag)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod metodo)) {
+            return true;
+        }
+        Admissao admissao = metodo.getMethodAnnotation(Admissao.class);
+        ClasseRequisicao classe = admissao != null ? admissao.value() : ClasseRequisicao.doMetodo(request.getMethod());
+        if (admissao != null && admissao.revalidarAntes() && revalidacao != null
+                && request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && revalidacao.naoModificado(request, response)) {
+            return false;
+        }
+
+        double custo = Math.min(properties.limite(classe).custo(), properties.rajada());
+        long faltam = baldes.get("cliente:" + request.getRemoteAddr(), chave -> novoBalde())
+                .retirar(custo, System.nanoTime());
+        if (faltam > 0) {
+            return rejeitar(response, classe, HttpStatus.TOO_MANY_REQUESTS, "limite-usuario",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(faltam + 999_999_999)),
+                    "Limite de requisições atingido. Tente novamente mais tarde.");
+        }
+
+        Semaphore semaforo = vagas.get(classe);
+        if (semaforo == null) {
+            return true;
+        }
+        long inicio = System.nanoTime();
+        boolean admitida;
+        try {
+            admitida = semaforo.tryAcquire(properties.esperaMaxima().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+        esperas.get(classe).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!admitida) {
+            return rejeitar(response, classe, HttpStatus.SERVICE_UNAVAILABLE, "concorrencia", 1,
+                    "Servidor ocupado. Tente novamente em instantes.");
+        }
+        request.setAttribute(VAGA, new Vaga(semaforo));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(request.getAttribute(VAGA) instanceof Vaga vaga)) {
+            return;
+        }
+        Admissao admissao = handler instanceof HandlerMethod metodo ? metodo.getMethodAnnotation(Admissao.class) : null;
+        if (admissao != null && admissao.liberarNaEspera()) {
+            vaga.liberar();
+            return;
+        }
+        // normalmente a resposta volta ao DispatcherServlet e passa pelo afterCompletion; o listener
+        // cobre as que terminam sem esse despacho, como a conexao fechada pelo cliente
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent evento) {
+                vaga.liberar();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent evento) {
+            }
+
+            @Override
+            public void onError(AsyncEvent evento) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent evento) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(VAGA) instanceof Vaga vaga) {
+            vaga.liberar();
+        }
+    }
+
+    /**
+     * Vaga ocupada por uma requisicao; o afterCompletion e o listener assincrono podem tentar
+     * devolve-la, mas so o primeiro devolve.
+     */
+    private static final class Vaga {
+
+        private final Semaphore semaforo;
+
+        private final AtomicBoolean ocupada = new AtomicBoolean(true);
+
+        private Vaga(Semaphore semaforo) {
+            this.semaforo = semaforo;
+        }
+
+        void liberar() {
+            if (ocupada.compareAndSet(true, false)) {
+                semaforo.release();
+            }
+        }
+    }
+
+    private BaldeDeFichas novoBalde() {
+        return new BaldeDeFichas(properties.rajada(), properties.fichasPorSegundo(), System.nanoTime());
+    }
+
+    private boolean rejeitar(HttpServletResponse response, ClasseRequisicao classe, HttpStatus status, String motivo,
+                             long segundos, String mensagem) throws IOException {
+        Counter.builder("finance.admissao.rejeitadas")
+                .description("Requisicoes recusadas pelo controle de admissao")
+                .tag("classe", classe.name().toLowerCase())
+                .tag("motivo", motivo)
+                .register(registry)
+                .increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(mensagem);
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package lab.info.com.finance.api.admissao;
+
+/**
+ * Token bucket: enche a uma taxa constante ate a capacidade, e cada requisicao retira o seu custo.
+ */
+final class BaldeDeFichas {
+
+    private final double capacidade;
+
+    private final double fichasPorNano;
+
+    private double fichas;
+
+    private long ultimaReposicao;
+
+    BaldeDeFichas(double capacidade, double fichasPorSegundo, long agora) {
+        this.capacidade = capacidade;
+        this.fichasPorNano = fichasPorSegundo / 1_000_000_000d;
+        this.fichas = capacidade;
+        this.ultimaReposicao = agora;
+    }
+
+    /**
+     * @return zero se o custo foi retirado; senao, em nanos, quanto falta para o balde ter o suficiente
+     */
+    synchronized long retirar(double custo, long agora) {
+        fichas = Math.min(capacidade, fichas + (agora - ultimaReposicao) * fichasPorNano);
+        ultimaReposicao = agora;
+        if (fichas >= custo) {
+            fichas -= custo;
+            return 0;
+        }
+        return (long) Math.ceil((custo - fichas) / fichasPorNano);
+    }
+}
@@ -0,0 +1,23 @@
+package lab.info.com.finance.api.admissao;
+
+/**
+ * Classes de carga dos endpoints; cada uma tem seu proprio limite de requisicoes simultaneas, para que
+ * uma nao consuma as conexoes e threads das outras.
+ */
+public enum ClasseRequisicao {
+
+    /** Consultas curtas, respondidas por indice ou pelas projecoes em memoria. */
+    LEITURA_LEVE,
+
+    /** Consultas que podem varrer muitas linhas: listagem, busca, exportacao, recalculo do saldo. */
+    LEITURA_PESADA,
+
+    ESCRITA;
+
+    static ClasseRequisicao doMetodo(String metodoHttp) {
+        return switch (metodoHttp) {
+            case "GET", "HEAD", "OPTIONS" -> LEITURA_LEVE;
+            default -> ESCRITA;
+        };
+    }
+}
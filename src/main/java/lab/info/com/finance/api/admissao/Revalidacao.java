@@ -0,0 +1,16 @@
+package lab.info.com.finance.api.admissao;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Confere o If-None-Match de um endpoint {@link Admissao#revalidarAntes()} antes da cobranca: um
+ * cliente que so revalida o que ja tem nao disputa vaga com as consultas que de fato leem o banco.
+ */
+public interface Revalidacao {
+
+    /**
+     * Quando devolve true a resposta ja esta marcada como 304, com o ETag.
+     */
+    boolean naoModificado(HttpServletRequest request, HttpServletResponse response);
+}
@@ -0,0 +1,22 @@
+package lab.info.com.finance.api.dto;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AtualizacaoStatusDTO {
+
+    private List<Long> ids;
+    private Long usuario;
+    private Integer ano;
+    private Integer mes;
+    private StatusLancamento status;
+}
@@ -0,0 +1,16 @@
+package lab.info.com.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FechamentoDTO {
+
+    private Integer ano;
+    private Integer mes;
+}
@@ -1,8 +1,11 @@
 package lab.info.com.finance.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lab.info.com.finance.model.entity.Lancamento;
 import lab.info.com.finance.model.entity.Usuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -26,4 +29,54 @@ public class LancamentoDTO {
     private LocalDate dataCadastro;
     private TipoLancamento tipo;
     private StatusLancamento status;
+    // so nas parcelas de uma recorrencia; os avulsos saem sem os dois campos
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long grupo;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer parcela;
+
+    public static LancamentoDTO de(Lancamento lancamento) {
+        return LancamentoDTO.builder()
+                .id(lancamento.getId())
+                .descricao(lancamento.getDescricao())
+                .mes(lancamento.getMes())
+                .ano(lancamento.getAno())
+                .valor(lancamento.getValor())
+                .usuario(lancamento.getUsuario().getId())
+                .dataCadastro(lancamento.getDataCadastro())
+                .status(lancamento.getStatus())
+                .tipo(lancamento.getTipo())
+                .grupo(lancamento.getIdGrupo())
+                .parcela(lancamento.getParcela())
+                .build();
+    }
+
+    public static LancamentoDTO de(LancamentoProjecao lancamento) {
+        return LancamentoDTO.builder()
+                .id(lancamento.id())
+                .descricao(lancamento.descricao())
+                .mes(lancamento.mes())
+                .ano(lancamento.ano())
+                .valor(lancamento.valor())
+                .usuario(lancamento.idUsuario())
+                .dataCadastro(lancamento.dataCadastro())
+                .status(lancamento.status())
+                .tipo(lancamento.tipo())
+                .grupo(lancamento.idGrupo())
+                .parcela(lancamento.parcela())
+                .build();
+    }
+
+    public Lancamento paraLancamento(Usuario usuario) {
+        return Lancamento.builder()
+                .id(id)
+                .descricao(descricao)
+                .mes(mes)
+                .ano(ano)
+                .valor(valor)
+                .usuario(usuario)
+                .status(status)
+                .tipo(tipo)
+                .build();
+    }
 }
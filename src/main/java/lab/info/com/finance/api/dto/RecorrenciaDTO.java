@@ -0,0 +1,28 @@
+package lab.info.com.finance.api.dto;
+
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecorrenciaDTO {
+
+    private String descricao;
+    private Integer mes;
+    private Integer ano;
+    private Long usuario;
+    private BigDecimal valor;
+    private TipoLancamento tipo;
+    private TipoRecorrencia recorrencia;
+    private Integer parcelas;
+    private Integer mesFim;
+    private Integer anoFim;
+}
@@ -0,0 +1,20 @@
+package lab.info.com.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerificacaoSaldoDTO {
+
+    private Long usuario;
+    private BigDecimal saldoMaterializado;
+    private BigDecimal saldoRecalculado;
+    private boolean consistente;
+}
@@ -0,0 +1,33 @@
+package lab.info.com.finance.api.resource;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * ETags das leituras de lancamentos e saldo, tirados da versao do usuario em vez do corpo: um
+ * If-None-Match que ainda vale e respondido com 304 sem executar a consulta nem serializar nada.
+ * Sao fracos porque a mesma versao serve a todas as representacoes (JSON, CBOR, Smile), e por isso
+ * a resposta, 304 inclusive, declara que varia com o Accept.
+ */
+final class EtagVersao {
+
+    // o cliente guarda a resposta, mas revalida a cada uso
+    static final CacheControl REVALIDAR = CacheControl.noCache();
+
+    private EtagVersao() {
+    }
+
+    static String de(Long idUsuario, long versao) {
+        return "W/\"" + idUsuario + "-" + versao + "\"";
+    }
+
+    /**
+     * Compara com o If-None-Match e ja coloca o ETag na resposta; quando devolve true o status e 304
+     * e o controller deve retornar null.
+     */
+    static boolean naoModificado(ServletWebRequest requisicao, Long idUsuario, long versao) {
+        requisicao.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return requisicao.checkNotModified(de(idUsuario, versao));
+    }
+}
@@ -0,0 +1,133 @@
+package lab.info.com.finance.api.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Escreve lancamentos, um por linha, diretamente no corpo da resposta.
+ */
+abstract class ExportadorLancamentos implements Consumer<LancamentoDTO> {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    static MediaType tipoConteudo(String formato) {
+        switch (formato.toLowerCase()) {
+            case "ndjson":
+                return NDJSON;
+            case "csv":
+                return CSV;
+            default:
+                throw new RegraNegocioException("Formato de exportação inválido. Use ndjson ou csv.");
+        }
+    }
+
+    static ResponseEntity<StreamingResponseBody> erro(String mensagem) {
+        return ResponseEntity.badRequest()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static ExportadorLancamentos para(MediaType tipo, OutputStream saida, ObjectMapper objectMapper) throws IOException {
+        return tipo == NDJSON ? new Ndjson(saida, objectMapper) : new Csv(saida);
+    }
+
+    /**
+     * Descarrega o que estiver em buffer sem fechar a saida, que pertence ao container.
+     */
+    abstract void concluir() throws IOException;
+
+    private static final class Ndjson extends ExportadorLancamentos {
+
+        private final SequenceWriter writer;
+
+        Ndjson(OutputStream saida, ObjectMapper objectMapper) throws IOException {
+            this.writer = objectMapper.writerFor(LancamentoDTO.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(saida);
+        }
+
+        @Override
+        public void accept(LancamentoDTO dto) {
+            try {
+                writer.write(dto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void concluir() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class Csv extends ExportadorLancamentos {
+
+        private final Writer writer;
+
+        Csv(OutputStream saida) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            writer.write("id,descricao,mes,ano,usuario,valor,dataCadastro,tipo,status\n");
+        }
+
+        @Override
+        public void accept(LancamentoDTO dto) {
+            try {
+                writer.write(String.valueOf(dto.getId()));
+                writer.write(',');
+                writer.write(escapar(dto.getDescricao()));
+                writer.write(',');
+                writer.write(texto(dto.getMes()));
+                writer.write(',');
+                writer.write(texto(dto.getAno()));
+                writer.write(',');
+                writer.write(texto(dto.getUsuario()));
+                writer.write(',');
+                writer.write(dto.getValor() == null ? "" : dto.getValor().toPlainString());
+                writer.write(',');
+                writer.write(texto(dto.getDataCadastro()));
+                writer.write(',');
+                writer.write(texto(dto.getTipo()));
+                writer.write(',');
+                writer.write(texto(dto.getStatus()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void concluir() throws IOException {
+            writer.flush();
+        }
+
+        private static String texto(Object valor) {
+            return valor == null ? "" : valor.toString();
+        }
+
+        private static String escapar(String valor) {
+            if (valor == null) {
+                return "";
+            }
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+                return valor;
+            }
+            return '"' + valor.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -1,17 +1,36 @@
 package lab.info.com.finance.api.resource;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lab.info.com.finance.api.admissao.Admissao;
+import lab.info.com.finance.api.admissao.ClasseRequisicao;
+import lab.info.com.finance.api.dto.AtualizacaoStatusDTO;
 import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.api.dto.RecorrenciaDTO;
+import lab.info.com.finance.config.LeituraAposEscrita;
+import lab.info.com.finance.exceptions.CapacidadeExcedidaException;
+import lab.info.com.finance.exceptions.LimiteExcedidoException;
 import lab.info.com.finance.exceptions.RegraNegocioException;
 import lab.info.com.finance.model.entity.Lancamento;
 import lab.info.com.finance.model.entity.Usuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.Pagina;
+import lab.info.com.finance.model.projection.VersaoUsuario;
+import lab.info.com.finance.service.GravacaoAgrupadaService;
 import lab.info.com.finance.service.LancamentoService;
 import lab.info.com.finance.service.UsuarioService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.YearMonth;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/lancamentos")
@@ -21,18 +40,150 @@ public class LancamentoResource {
 
     private  UsuarioService usuarioService;
 
-    public LancamentoResource(LancamentoService service, UsuarioService usuarioService){
+    private ObjectMapper objectMapper;
+
+    private GravacaoAgrupadaService gravacaoAgrupada;
+
+    private LeituraAposEscrita leituraAposEscrita;
+
+    public LancamentoResource(LancamentoService service, UsuarioService usuarioService, ObjectMapper objectMapper,
+                              ObjectProvider<GravacaoAgrupadaService> gravacaoAgrupada,
+                              ObjectProvider<LeituraAposEscrita> leituraAposEscrita){
         this.service = service;
         this.usuarioService = usuarioService;
+        this.objectMapper = objectMapper;
+        this.gravacaoAgrupada = gravacaoAgrupada.getIfAvailable();
+        this.leituraAposEscrita = leituraAposEscrita.getIfAvailable();
     }
 
+    /**
+     * Com a gravacao agrupada ligada devolve um CompletableFuture: a thread do servlet e liberada e
+     * o 201 so sai depois do commit do lote em que o lancamento foi gravado. O commit acontece na
+     * thread do gravador, entao o cookie de leitura apos escrita e posto aqui, ao aceitar.
+     */
     @PostMapping
-    public ResponseEntity salvar(@RequestBody LancamentoDTO dto){
+    @Admissao(value = ClasseRequisicao.ESCRITA, liberarNaEspera = true)
+    public Object salvar(@RequestBody LancamentoDTO dto){
+        if (gravacaoAgrupada != null) {
+            return salvarAgrupado(dto);
+        }
         try {
             Lancamento lancamentoSalvo = this.service.salvar(converter(dto));
-            return new ResponseEntity(lancamentoSalvo, HttpStatus.CREATED);
+            return new ResponseEntity(converter(lancamentoSalvo), HttpStatus.CREATED);
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    private Object salvarAgrupado(LancamentoDTO dto){
+        try {
+            CompletableFuture<Lancamento> gravado = gravacaoAgrupada.enfileirar(converter(dto));
+            if (leituraAposEscrita != null) {
+                leituraAposEscrita.registrarEscrita();
+            }
+            return gravado
+                    .handle((lancamentoSalvo, erro) -> erro == null
+                            ? new ResponseEntity(converter(lancamentoSalvo), HttpStatus.CREATED)
+                            : respostaDeErro(erro instanceof CompletionException ? erro.getCause() : erro));
+        }catch (CapacidadeExcedidaException e) {
+            return RespostaDeErro.tooManyRequests(e);
+        }catch (RegraNegocioException e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    /**
+     * So a regra de negocio recusada pelo lote e erro do cliente; falha do commit e 5xx.
+     */
+    private static ResponseEntity respostaDeErro(Throwable erro) {
+        if (erro instanceof CapacidadeExcedidaException e) {
+            return RespostaDeErro.tooManyRequests(e);
+        }
+        if (erro instanceof RegraNegocioException e) {
+            return RespostaDeErro.badRequest(e);
+        }
+        return RespostaDeErro.erroInterno(erro);
+    }
+
+    @PostMapping(value = "/importacao", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity importar(@RequestParam(value = "usuario") Long idUsuario, @RequestBody java.util.List<LancamentoDTO> dtos){
+        return importarLancamentos(idUsuario, dtos);
+    }
+
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    public ResponseEntity importarCsv(@RequestParam(value = "usuario") Long idUsuario, @RequestBody String csv){
+        try {
+            return importarLancamentos(idUsuario, LeitorCsvLancamentos.ler(csv));
+        }catch (RegraNegocioException e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    private ResponseEntity importarLancamentos(Long idUsuario, java.util.List<LancamentoDTO> dtos){
+        Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+        if(!usuario.isPresent()){
+            return ResponseEntity.badRequest().body("Não foi possível realizar a importação. Usuário não encontrado para o Id informado");
+        }
+
+        java.util.List<Lancamento> lancamentos = new java.util.ArrayList<>(dtos.size());
+        for (LancamentoDTO dto : dtos) {
+            lancamentos.add(converter(dto, usuario.get()));
+        }
+        try {
+            return ResponseEntity.ok(service.importar(lancamentos));
+        }catch (LimiteExcedidoException e) {
+            return RespostaDeErro.payloadTooLarge(e);
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @PostMapping("/recorrencias")
+    @Admissao(ClasseRequisicao.ESCRITA)
+    public ResponseEntity salvarRecorrencia(@RequestBody RecorrenciaDTO dto){
+        try {
+            Usuario usuario = usuarioService
+                    .obterPorId(dto.getUsuario())
+                    .orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado"));
+            YearMonth ate = null;
+            if(dto.getAnoFim() != null || dto.getMesFim() != null){
+                if(dto.getAnoFim() == null || dto.getMesFim() == null || dto.getMesFim() < 1 || dto.getMesFim() > 12){
+                    throw new RegraNegocioException("Informe um Mês final válido.");
+                }
+                ate = YearMonth.of(dto.getAnoFim(), dto.getMesFim());
+            }
+            Lancamento modelo = Lancamento.builder()
+                    .descricao(dto.getDescricao())
+                    .mes(dto.getMes())
+                    .ano(dto.getAno())
+                    .valor(dto.getValor())
+                    .usuario(usuario)
+                    .tipo(dto.getTipo())
+                    .build();
+            java.util.List<Lancamento> lancamentos = service.salvarRecorrencia(modelo, dto.getRecorrencia(), dto.getParcelas(), ate);
+            return new ResponseEntity(lancamentos.stream().map(this::converter).toList(), HttpStatus.CREATED);
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @PutMapping("/grupos/{grupo}")
+    @Admissao(ClasseRequisicao.ESCRITA)
+    public ResponseEntity atualizarGrupo(@PathVariable Long grupo, @RequestBody LancamentoDTO dto){
+        try {
+            return ResponseEntity.ok(java.util.Map.of("atualizados", service.atualizarGrupo(grupo, dto.getDescricao(), dto.getValor())));
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @PutMapping("/grupos/{grupo}/cancelamento")
+    @Admissao(ClasseRequisicao.ESCRITA)
+    public ResponseEntity cancelarGrupo(@PathVariable Long grupo){
+        try {
+            return ResponseEntity.ok(java.util.Map.of("atualizados", service.cancelarGrupo(grupo)));
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
         }
     }
 
@@ -41,17 +192,17 @@ public class LancamentoResource {
         try {
             Lancamento lancamento = service.obterPorId(id)
                     .map( lanc -> {
-                        try {
-                            dto.setId(id);
-                            return service.atualizar(converter(dto));
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                        return null;
+                        dto.setId(id);
+                        Lancamento alterado = converter(dto);
+                        // a parcela continua no grupo em que foi gerada
+                        alterado.setIdGrupo(lanc.getIdGrupo());
+                        alterado.setParcela(lanc.getParcela());
+                        alterado.setRecorrencia(lanc.getRecorrencia());
+                        return service.atualizar(alterado);
                     }).orElseThrow(() -> new RegraNegocioException("Lancamento não encontrado na base de dados"));
-            return ResponseEntity.ok(lancamento);
+            return ResponseEntity.ok(converter(lancamento));
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
         }
     }
 
@@ -63,19 +214,24 @@ public class LancamentoResource {
             service.deletar(lancamento);
             return ResponseEntity.noContent().build();
         } catch (RegraNegocioException e) {
+            RespostaDeErro.registrar(e);
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
         }
     }
 
     @GetMapping
+    @Admissao(value = ClasseRequisicao.LEITURA_PESADA, revalidarAntes = true)
     public ResponseEntity buscar(
             @RequestParam(value = "descricao", required = false) String descricao,
             @RequestParam(value = "mes", required = false) Integer mes,
             @RequestParam(value = "ano", required = false) Integer ano,
             @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
-            @RequestParam(value = "usuario") Long idUsuario
+            @RequestParam(value = "usuario") Long idUsuario,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "tamanho", required = false) Integer tamanho,
+            ServletWebRequest requisicao
     ){
         Lancamento lancamentoFiltro = new Lancamento();
         lancamentoFiltro.setDescricao(descricao);
@@ -90,34 +246,89 @@ public class LancamentoResource {
             lancamentoFiltro.setUsuario(usuario.get());
         }
 
+        if(EtagVersao.naoModificado(requisicao, idUsuario, service.obterVersaoPorUsuario(idUsuario))){
+            return null;
+        }
         try {
-            java.util.List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-            return ResponseEntity.ok(lancamentos);
+            if(cursor != null || tamanho != null){
+                Pagina<LancamentoProjecao> pagina = service.buscarPagina(lancamentoFiltro, cursor, tamanho);
+                return ResponseEntity.ok().cacheControl(EtagVersao.REVALIDAR)
+                        .body(new Pagina<>(pagina.itens().stream().map(this::converter).toList(), pagina.proximoCursor()));
+            }
+            return ResponseEntity.ok().cacheControl(EtagVersao.REVALIDAR)
+                    .body(service.buscar(lancamentoFiltro).stream().map(this::converter).toList());
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @GetMapping("/busca")
+    @Admissao(ClasseRequisicao.LEITURA_PESADA)
+    public ResponseEntity buscarPorTexto(
+            @RequestParam(value = "usuario") Long idUsuario,
+            @RequestParam(value = "texto") String texto,
+            @RequestParam(value = "limite", required = false) Integer limite
+    ){
+        if(!usuarioService.obterPorId(idUsuario).isPresent()){
+            return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado");
+        }
+        try {
+            return ResponseEntity.ok(service.buscarPorTexto(idUsuario, texto, limite).stream().map(this::converter).toList());
+        }catch (RegraNegocioException e) {
+            return RespostaDeErro.badRequest(e);
         }
     }
 
+    @GetMapping("/exportacao")
+    @Admissao(ClasseRequisicao.LEITURA_PESADA)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(value = "usuario") Long idUsuario,
+            @RequestParam(value = "formato", defaultValue = "ndjson") String formato
+    ){
+        MediaType tipo;
+        try {
+            tipo = ExportadorLancamentos.tipoConteudo(formato);
+        }catch (RegraNegocioException e) {
+            return ExportadorLancamentos.erro(e.getMessage());
+        }
+        if(!usuarioService.obterPorId(idUsuario).isPresent()){
+            return ExportadorLancamentos.erro("Não foi possível realizar a exportação. Usuário não encontrado para o Id informado");
+        }
+
+        StreamingResponseBody corpo = saida -> {
+            ExportadorLancamentos exportador = ExportadorLancamentos.para(tipo, saida, objectMapper);
+            service.exportar(idUsuario, lancamento -> exportador.accept(converter(lancamento)));
+            exportador.concluir();
+        };
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header("Content-Disposition", "attachment; filename=\"lancamentos-" + idUsuario + "." + formato.toLowerCase() + "\"")
+                .body(corpo);
+    }
+
     @PutMapping("{id}/atualiza-status")
     public ResponseEntity atualizarStatus(@PathVariable Long id, @RequestBody LancamentoDTO dto){
         try {
-            Lancamento lancamento = service.obterPorId(id)
-                    .map( lanc -> {
-                        try {
-                            StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus().toString());
-                            if(statusSelecionado == null){
-                                throw new RegraNegocioException("Status inválido");
-                            }
-                            lanc.setStatus(statusSelecionado);
-                            return service.atualizarStatus(lanc, statusSelecionado);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                        return null;
-                    }).orElseThrow(() -> new RegraNegocioException("Lancamento não encontrado na base de dados"));
-            return ResponseEntity.ok(lancamento);
+            return ResponseEntity.ok(converter(service.atualizarStatus(id, dto.getStatus())));
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @PutMapping("/atualiza-status")
+    public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizacaoStatusDTO dto){
+        try {
+            int atualizados;
+            if(dto.getIds() != null && !dto.getIds().isEmpty()){
+                atualizados = service.atualizarStatus(dto.getIds(), dto.getStatus());
+            }else if(dto.getUsuario() != null && dto.getAno() != null && dto.getMes() != null){
+                atualizados = service.atualizarStatusDosPendentes(dto.getUsuario(), dto.getAno(), dto.getMes(), dto.getStatus());
+            }else{
+                throw new RegraNegocioException("Informe os ids ou o usuário, o ano e o mês dos lançamentos.");
+            }
+            return ResponseEntity.ok(java.util.Map.of("atualizados", atualizados));
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
         }
     }
 
@@ -128,37 +339,30 @@ public class LancamentoResource {
                 .obterPorId(dto.getUsuario())
                 .orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado"));
 
-        return Lancamento.builder()
-                .id(dto.getId())
-                .descricao(dto.getDescricao())
-                .mes(dto.getMes())
-                .ano(dto.getAno())
-                .valor(dto.getValor())
-                .usuario(usuario)
-                .status(dto.getStatus())
-                .tipo(dto.getTipo())
-                .build();
+        return converter(dto, usuario);
+    }
+
+    private Lancamento converter(LancamentoDTO dto, Usuario usuario) {
+        return dto.paraLancamento(usuario);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity obterLancamentoPorId(@PathVariable("id") Long id){
-        return service.obterPorId(id)
-                .map( lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+    public ResponseEntity obterLancamentoPorId(@PathVariable("id") Long id, ServletWebRequest requisicao){
+        Optional<VersaoUsuario> versao = service.obterVersaoPorLancamento(id);
+        if(versao.isPresent() && EtagVersao.naoModificado(requisicao, versao.get().idUsuario(), versao.get().versao())){
+            return null;
+        }
+        return service.obterProjecaoPorId(id)
+                .map( lancamento -> ResponseEntity.ok().cacheControl(EtagVersao.REVALIDAR).body(converter(lancamento)))
                 .orElseGet( () -> new ResponseEntity(HttpStatus.NOT_FOUND));
     }
 
     private LancamentoDTO converter(Lancamento lancamento) {
-        return LancamentoDTO.builder()
-                .id(lancamento.getId())
-                .descricao(lancamento.getDescricao())
-                .mes(lancamento.getMes())
-                .ano(lancamento.getAno())
-                .valor(lancamento.getValor())
-                .usuario(lancamento.getUsuario().getId())
-                .status(lancamento.getStatus())
-                .tipo(lancamento.getTipo())
-                .usuario(lancamento.getUsuario().getId())
-                .build();
+        return LancamentoDTO.de(lancamento);
+    }
+
+    private LancamentoDTO converter(LancamentoProjecao lancamento) {
+        return LancamentoDTO.de(lancamento);
     }
 
 }
@@ -0,0 +1,129 @@
+package lab.info.com.finance.api.resource;
+
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Le o CSV de importacao. A primeira linha e o cabecalho e identifica as colunas pelo nome
+ * (descricao, mes, ano, valor, tipo), o que permite reimportar um arquivo gerado pela exportacao.
+ * Valores que nao puderem ser convertidos ficam nulos e sao reportados pela validacao da linha.
+ */
+final class LeitorCsvLancamentos {
+
+    private LeitorCsvLancamentos() {
+    }
+
+    static List<LancamentoDTO> ler(String conteudo) {
+        List<List<String>> registros = registros(conteudo);
+        if (registros.isEmpty()) {
+            throw new RegraNegocioException("Arquivo CSV vazio.");
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        List<String> cabecalho = registros.get(0);
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).trim().toLowerCase(), i);
+        }
+        if (!colunas.containsKey("descricao")) {
+            throw new RegraNegocioException("Cabeçalho do CSV deve conter as colunas descricao, mes, ano, valor e tipo.");
+        }
+
+        List<LancamentoDTO> lancamentos = new ArrayList<>(registros.size() - 1);
+        for (List<String> registro : registros.subList(1, registros.size())) {
+            lancamentos.add(LancamentoDTO.builder()
+                    .descricao(campo(registro, colunas, "descricao"))
+                    .mes(inteiro(campo(registro, colunas, "mes")))
+                    .ano(inteiro(campo(registro, colunas, "ano")))
+                    .valor(decimal(campo(registro, colunas, "valor")))
+                    .tipo(tipo(campo(registro, colunas, "tipo")))
+                    .build());
+        }
+        return lancamentos;
+    }
+
+    private static String campo(List<String> registro, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= registro.size()) {
+            return null;
+        }
+        String valor = registro.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static Integer inteiro(String valor) {
+        try {
+            return valor == null ? null : Integer.valueOf(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal decimal(String valor) {
+        try {
+            return valor == null ? null : new BigDecimal(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static TipoLancamento tipo(String valor) {
+        try {
+            return valor == null ? null : TipoLancamento.valueOf(valor.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Separa o conteudo em registros e campos, respeitando aspas duplas (RFC 4180).
+     * Linhas em branco sao ignoradas.
+     */
+    private static List<List<String>> registros(String conteudo) {
+        List<List<String>> registros = new ArrayList<>();
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < conteudo.length(); i++) {
+            char c = conteudo.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < conteudo.length() && conteudo.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < conteudo.length() && conteudo.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                fecharRegistro(registros, campos, campo);
+                campos = new ArrayList<>();
+            } else {
+                campo.append(c);
+            }
+        }
+        fecharRegistro(registros, campos, campo);
+        return registros;
+    }
+
+    private static void fecharRegistro(List<List<String>> registros, List<String> campos, StringBuilder campo) {
+        campos.add(campo.toString());
+        campo.setLength(0);
+        if (campos.size() > 1 || !campos.get(0).isBlank()) {
+            registros.add(campos);
+        }
+    }
+}
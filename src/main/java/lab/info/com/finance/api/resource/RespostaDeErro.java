@@ -0,0 +1,59 @@
+package lab.info.com.finance.api.resource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+/**
+ * Respostas de erro dos endpoints que tratam a excecao em vez de propaga-la. A excecao e anotada
+ * na observacao da requisicao, entao o timer {@code http.server.requests} continua trazendo a tag
+ * {@code exception} mesmo quando a resposta e um 400 montado pelo proprio controller.
+ */
+final class RespostaDeErro {
+
+    private RespostaDeErro() {
+    }
+
+    static ResponseEntity badRequest(Exception e) {
+        registrar(e);
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    /**
+     * Recusa por falta de capacidade: o cliente pode repetir a mesma requisicao depois do Retry-After.
+     */
+    static ResponseEntity tooManyRequests(Exception e) {
+        registrar(e);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    /**
+     * Recusa por passar de um limite configurado: a mesma requisicao seria recusada de novo.
+     */
+    static ResponseEntity payloadTooLarge(Exception e) {
+        registrar(e);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+    }
+
+    /**
+     * Falha que nao e regra de negocio (banco, bug, {@link Error}): 500, sem expor a mensagem.
+     */
+    static ResponseEntity erroInterno(Throwable e) {
+        registrar(e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Erro interno ao processar a requisição.");
+    }
+
+    static void registrar(Throwable e) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            HttpServletRequest request = atributos.getRequest();
+            ServerHttpObservationFilter.findObservationContext(request).ifPresent(contexto -> contexto.setError(e));
+        }
+    }
+}
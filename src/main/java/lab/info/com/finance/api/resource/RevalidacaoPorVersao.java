@@ -0,0 +1,35 @@
+package lab.info.com.finance.api.resource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lab.info.com.finance.api.admissao.Revalidacao;
+import lab.info.com.finance.service.LancamentoService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Revalidacao das listagens de lancamentos pelo ETag de versao do parametro {@code usuario}, a mesma
+ * que o controller faria, so que antes de a requisicao ser cobrada como leitura pesada.
+ */
+@Component
+public class RevalidacaoPorVersao implements Revalidacao {
+
+    private LancamentoService service;
+
+    public RevalidacaoPorVersao(LancamentoService service) {
+        this.service = service;
+    }
+
+    @Override
+    public boolean naoModificado(HttpServletRequest request, HttpServletResponse response) {
+        Long idUsuario;
+        try {
+            idUsuario = Long.valueOf(request.getParameter("usuario"));
+        } catch (NumberFormatException e) {
+            // o controller responde o 400
+            return false;
+        }
+        return EtagVersao.naoModificado(new ServletWebRequest(request, response), idUsuario,
+                service.obterVersaoPorUsuario(idUsuario));
+    }
+}
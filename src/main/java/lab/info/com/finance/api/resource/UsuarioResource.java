@@ -1,15 +1,31 @@
 package lab.info.com.finance.api.resource;
 
+import lab.info.com.finance.api.admissao.Admissao;
+import lab.info.com.finance.api.admissao.ClasseRequisicao;
+import lab.info.com.finance.api.dto.FechamentoDTO;
 import lab.info.com.finance.api.dto.UsuarioDTO;
+import lab.info.com.finance.api.dto.VerificacaoSaldoDTO;
+import lab.info.com.finance.model.entity.Fechamento;
+import lab.info.com.finance.model.entity.SaldoUsuario;
 import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.service.AgregacaoService;
+import lab.info.com.finance.service.FechamentoService;
 import lab.info.com.finance.service.LancamentoService;
 import lab.info.com.finance.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/usuarios")
@@ -19,13 +35,20 @@ public class UsuarioResource {
 
     private LancamentoService lancamentoService;
 
+    private FechamentoService fechamentoService;
+
+    private AgregacaoService agregacaoService;
+
 
     @Autowired
-   public UsuarioResource(UsuarioService service, LancamentoService lancamentoService) {
+   public UsuarioResource(UsuarioService service, LancamentoService lancamentoService, FechamentoService fechamentoService,
+                          AgregacaoService agregacaoService) {
         this.service = service;
         this.lancamentoService = lancamentoService;
+        this.fechamentoService = fechamentoService;
+        this.agregacaoService = agregacaoService;
     }
-    @PostMapping("/")
+    @PostMapping({"", "/"})
     public ResponseEntity salvar(@RequestBody UsuarioDTO dto) {
 
         Usuario usuario = Usuario.builder()
@@ -38,27 +61,112 @@ public class UsuarioResource {
            Usuario usuarioSalvo = service.salvarUsuario(usuario);
            return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
         }
     }
 
     @PostMapping("/autenticar")
+    @Admissao(ClasseRequisicao.LEITURA_LEVE)
     public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
         try {
             Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
             return ResponseEntity.ok(usuarioAutenticado);
         }catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return RespostaDeErro.badRequest(e);
         }
     }
 
     @GetMapping("{id}/saldo")
-    public ResponseEntity obterSaldo(@PathVariable Long id) {
+    @Admissao(ClasseRequisicao.LEITURA_LEVE)
+    public ResponseEntity obterSaldo(@PathVariable Long id, ServletWebRequest requisicao) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        // saldo e versao da mesma linha: o ETag nunca fica a frente do valor enviado
+        SaldoUsuario saldo = lancamentoService.obterSaldoVersionadoPorUsuario(id);
+        if (EtagVersao.naoModificado(requisicao, id, saldo.getVersao())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(EtagVersao.REVALIDAR).body(saldo.getValor());
+    }
+
+    @GetMapping("{id}/saldo/evolucao")
+    @Admissao(ClasseRequisicao.LEITURA_LEVE)
+    public ResponseEntity obterEvolucaoSaldo(@PathVariable Long id,
+                                             @RequestParam("de") @DateTimeFormat(pattern = "yyyy-MM") YearMonth inicio,
+                                             @RequestParam("ate") @DateTimeFormat(pattern = "yyyy-MM") YearMonth fim) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        try {
+            return ResponseEntity.ok(fechamentoService.obterEvolucaoSaldo(id, inicio, fim));
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @GetMapping("{id}/saldo/verificacao")
+    @Admissao(ClasseRequisicao.LEITURA_PESADA)
+    public ResponseEntity verificarSaldo(@PathVariable Long id) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        BigDecimal saldoMaterializado = lancamentoService.obterSaldoPorUsuario(id);
+        BigDecimal saldoRecalculado = lancamentoService.recalcularSaldoPorUsuario(id);
+        VerificacaoSaldoDTO verificacao = VerificacaoSaldoDTO.builder()
+                .usuario(id)
+                .saldoMaterializado(saldoMaterializado)
+                .saldoRecalculado(saldoRecalculado)
+                .consistente(saldoMaterializado.compareTo(saldoRecalculado) == 0)
+                .build();
+        return ResponseEntity.ok(verificacao);
+    }
+
+    @PostMapping("{id}/fechamentos")
+    @Admissao(ClasseRequisicao.ESCRITA)
+    public ResponseEntity fechar(@PathVariable Long id, @RequestBody FechamentoDTO dto) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        try {
+            Fechamento fechamento = fechamentoService.fechar(id, dto.getAno(), dto.getMes());
+            return new ResponseEntity(fechamento, HttpStatus.CREATED);
+        }catch (Exception e) {
+            return RespostaDeErro.badRequest(e);
+        }
+    }
+
+    @GetMapping("{id}/contagem-por-status")
+    @Admissao(ClasseRequisicao.LEITURA_LEVE)
+    public ResponseEntity contarPorStatus(@PathVariable Long id) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        return ResponseEntity.ok(lancamentoService.contarPorStatus(id));
+    }
+
+    @GetMapping("{id}/totais-mensais")
+    @Admissao(ClasseRequisicao.LEITURA_LEVE)
+    public ResponseEntity obterTotaisMensais(@PathVariable Long id) {
+
+        service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        return ResponseEntity.ok(fechamentoService.obterTotaisMensais(id));
+    }
+
+    @GetMapping("{id}/agregados")
+    @Admissao(ClasseRequisicao.LEITURA_PESADA)
+    public ResponseEntity agregar(@PathVariable Long id,
+                                  @RequestParam(value = "por", required = false) Set<DimensaoLancamento> dimensoes,
+                                  @RequestParam(value = "ano", required = false) Integer ano,
+                                  @RequestParam(value = "mes", required = false) Integer mes,
+                                  @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+                                  @RequestParam(value = "status", required = false) StatusLancamento status) {
 
         service.obterPorId(id).orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
-        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-        return ResponseEntity.ok(saldo);
+        return ResponseEntity.ok(agregacaoService.agregar(id, new FiltroAgregacao(ano, mes, tipo, status),
+                dimensoes == null ? Set.of() : dimensoes));
     }
 
 }
@@ -0,0 +1,47 @@
+package lab.info.com.finance.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.info.com.finance.api.admissao.AdmissaoInterceptor;
+import lab.info.com.finance.api.admissao.Revalidacao;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Liga o {@link AdmissaoInterceptor} na API com {@code finance.admissao.habilitada=true}; desligado
+ * por padrao, porque os limites so fazem sentido dimensionados para a carga de cada instalacao.
+ */
+@Configuration
+@ConditionalOnProperty(name = "finance.admissao.habilitada", havingValue = "true")
+@EnableConfigurationProperties(AdmissaoProperties.class)
+public class AdmissaoConfig implements WebMvcConfigurer {
+
+    private AdmissaoProperties properties;
+
+    private MeterRegistry registry;
+
+    private Revalidacao revalidacao;
+
+    public AdmissaoConfig(AdmissaoProperties properties, ObjectProvider<MeterRegistry> registry,
+                          ObjectProvider<Revalidacao> revalidacao) {
+        this.properties = properties;
+        // os testes de fatia web nao sobem o actuator
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.revalidacao = revalidacao.getIfAvailable();
+    }
+
+    @Bean
+    public AdmissaoInterceptor admissaoInterceptor() {
+        return new AdmissaoInterceptor(properties, registry, revalidacao);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(admissaoInterceptor()).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,42 @@
+package lab.info.com.finance.config;
+
+import lab.info.com.finance.api.admissao.ClasseRequisicao;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limites do controle de admissao da API.
+ *
+ * @param esperaMaxima     quanto uma requisicao espera por uma vaga da sua classe antes do 503
+ * @param fichasPorSegundo taxa com que o balde de cada cliente volta a encher
+ * @param rajada           capacidade do balde: quantas fichas um cliente gasta de uma vez
+ * @param leituraLeve      limites de {@link ClasseRequisicao#LEITURA_LEVE}
+ * @param leituraPesada    limites de {@link ClasseRequisicao#LEITURA_PESADA}
+ * @param escrita          limites de {@link ClasseRequisicao#ESCRITA}
+ */
+@ConfigurationProperties("finance.admissao")
+public record AdmissaoProperties(
+        @DefaultValue("100ms") Duration esperaMaxima,
+        @DefaultValue("20") double fichasPorSegundo,
+        @DefaultValue("40") int rajada,
+        @DefaultValue Limite leituraLeve,
+        @DefaultValue Limite leituraPesada,
+        @DefaultValue Limite escrita) {
+
+    /**
+     * @param concorrencia requisicoes da classe em andamento ao mesmo tempo; zero nao limita
+     * @param custo        fichas retiradas do balde do cliente por requisicao
+     */
+    public record Limite(@DefaultValue("0") int concorrencia, @DefaultValue("1") int custo) {
+    }
+
+    public Limite limite(ClasseRequisicao classe) {
+        return switch (classe) {
+            case LEITURA_LEVE -> leituraLeve;
+            case LEITURA_PESADA -> leituraPesada;
+            case ESCRITA -> escrita;
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package lab.info.com.finance.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR ({@code application/cbor}) e Smile ({@code application/x-jackson-smile}) como alternativas
+ * binarias ao JSON, escolhidas pelo Accept na resposta e pelo Content-Type na entrada. Os mapeadores
+ * saem do mesmo builder do ObjectMapper do Spring Boot, entao datas, modulos e {@code spring.jackson.*}
+ * valem igual nos tres formatos. Os conversores substituem os padroes do Spring MVC na mesma posicao,
+ * depois do JSON, que continua sendo a resposta de quem aceita qualquer tipo.
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cbor(builder));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smile(builder));
+    }
+
+    public static ObjectMapper cbor(Jackson2ObjectMapperBuilder builder) {
+        return builder.factory(new CBORFactory()).build();
+    }
+
+    public static ObjectMapper smile(Jackson2ObjectMapperBuilder builder) {
+        // tipo, status e descricoes se repetem linha a linha: com os valores compartilhados cada
+        // repeticao vira uma referencia de um ou dois bytes, como ja acontece com os nomes dos campos
+        return builder.factory(SmileFactory.builder()
+                        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                        .build())
+                .build();
+    }
+}
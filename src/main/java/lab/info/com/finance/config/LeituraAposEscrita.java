@@ -0,0 +1,11 @@
+package lab.info.com.finance.config;
+
+/**
+ * Marca a resposta da requisicao atual com o cookie de leitura apos escrita quando a escrita e aceita
+ * fora de uma transacao, como na gravacao agrupada. So existe quando ha replicas configuradas.
+ */
+@FunctionalInterface
+public interface LeituraAposEscrita {
+
+    void registrarEscrita();
+}
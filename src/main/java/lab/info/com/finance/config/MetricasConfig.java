@@ -0,0 +1,19 @@
+package lab.info.com.finance.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Habilita o {@code @Timed} dos servicos; cada metodo publico vira o timer
+     * {@code finance.servico} com as tags {@code class}, {@code method} e {@code exception}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
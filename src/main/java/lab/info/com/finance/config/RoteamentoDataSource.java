@@ -0,0 +1,211 @@
+package lab.info.com.finance.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Envia as transacoes somente leitura para as replicas, em rodizio, e todo o resto para o primario.
+ * Fica atras de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: so assim
+ * a conexao e obtida depois que a transacao ja informou se e somente leitura.
+ *
+ * <p>Leitura apos escrita: a resposta de uma requisicao que gravou algo leva o cookie
+ * {@value #COOKIE_ESCRITA}, valido pela janela configurada. Enquanto o cliente o enviar, as leituras
+ * dele vao ao primario e enxergam a propria escrita mesmo com a replica atrasada.
+ *
+ * <p>Dentro de uma requisicao as leituras ficam na mesma replica enquanto ela estiver no rodizio, entao
+ * uma leitura nunca ve um estado mais antigo que a anterior (a versao do ETag e depois os dados, por exemplo).
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String COOKIE_ESCRITA = "finance-escrita";
+
+    private static final Logger log = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+    private static final String PRIMARIO = "primario";
+
+    private static final String ESCRITA_NA_REQUISICAO = RoteamentoDataSource.class.getName() + ".escrita";
+
+    private static final String REPLICA_DA_REQUISICAO = RoteamentoDataSource.class.getName() + ".replica";
+
+    private static final String CONSULTA_ATRASO_POSTGRES =
+            "select case when pg_is_in_recovery() and pg_last_wal_receive_lsn() is distinct from pg_last_wal_replay_lsn() " +
+            "then extract(epoch from now() - pg_last_xact_replay_timestamp()) else 0 end";
+
+    private final HikariDataSource primario;
+
+    private final List<HikariDataSource> replicas;
+
+    private final Duration leituraAposEscrita;
+
+    private final Duration atrasoMaximo;
+
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    private volatile List<Integer> disponiveis;
+
+    RoteamentoDataSource(HikariDataSource primario, List<HikariDataSource> replicas, Duration leituraAposEscrita, Duration atrasoMaximo) {
+        this.primario = primario;
+        this.replicas = replicas;
+        this.leituraAposEscrita = leituraAposEscrita;
+        this.atrasoMaximo = atrasoMaximo;
+        this.disponiveis = IntStream.range(0, replicas.size()).boxed().toList();
+
+        Map<Object, Object> alvos = new HashMap<>();
+        alvos.put(PRIMARIO, primario);
+        for (int i = 0; i < replicas.size(); i++) {
+            alvos.put(i, replicas.get(i));
+        }
+        setTargetDataSources(alvos);
+        setDefaultTargetDataSource(primario);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // fora de transacao (Flyway, Hibernate ao subir) e em transacoes de escrita: primario
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARIO;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registrarEscrita();
+            return PRIMARIO;
+        }
+        List<Integer> ativas = disponiveis;
+        if (ativas.isEmpty() || escritaRecente()) {
+            return PRIMARIO;
+        }
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return ativas.get(Math.floorMod(proxima.getAndIncrement(), ativas.size()));
+        }
+        if (atributos.getAttribute(REPLICA_DA_REQUISICAO, RequestAttributes.SCOPE_REQUEST) instanceof Integer replica
+                && ativas.contains(replica)) {
+            return replica;
+        }
+        Integer replica = ativas.get(Math.floorMod(proxima.getAndIncrement(), ativas.size()));
+        atributos.setAttribute(REPLICA_DA_REQUISICAO, replica, RequestAttributes.SCOPE_REQUEST);
+        return replica;
+    }
+
+    private void registrarEscrita() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) || !marcarEscrita(atributos)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // o corpo da resposta ainda nao foi escrito: a transacao termina dentro do controller
+                atributos.getResponse().addCookie(cookieDeEscrita());
+            }
+        });
+    }
+
+    /**
+     * Poe o cookie de escrita na resposta atual sem esperar um commit, para escritas aceitas pela
+     * requisicao e gravadas depois em outra thread.
+     */
+    void registrarEscritaAceita() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos && marcarEscrita(atributos)) {
+            atributos.getResponse().addCookie(cookieDeEscrita());
+        }
+    }
+
+    private boolean marcarEscrita(ServletRequestAttributes atributos) {
+        if (leituraAposEscrita.isZero()
+                || atributos.getResponse() == null
+                || atributos.getAttribute(ESCRITA_NA_REQUISICAO, RequestAttributes.SCOPE_REQUEST) != null) {
+            return false;
+        }
+        atributos.setAttribute(ESCRITA_NA_REQUISICAO, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        return true;
+    }
+
+    private Cookie cookieDeEscrita() {
+        Cookie cookie = new Cookie(COOKIE_ESCRITA, Long.toString(System.currentTimeMillis()));
+        cookie.setMaxAge((int) Math.max(1, leituraAposEscrita.toSeconds()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        return cookie;
+    }
+
+    private boolean escritaRecente() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return false;
+        }
+        if (atributos.getAttribute(ESCRITA_NA_REQUISICAO, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        HttpServletRequest request = atributos.getRequest();
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_ESCRITA.equals(cookie.getName())) {
+                try {
+                    return System.currentTimeMillis() - Long.parseLong(cookie.getValue()) < leituraAposEscrita.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tira do rodizio as replicas inacessiveis ou com atraso acima do maximo, e devolve as que se recuperaram.
+     */
+    @Scheduled(fixedDelay = 5000, initialDelay = 5000)
+    void verificarReplicas() {
+        List<Integer> ativas = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get(i);
+            try (Connection conexao = replica.getConnection()) {
+                Duration atraso = atraso(conexao);
+                if (atraso.compareTo(atrasoMaximo) <= 0) {
+                    ativas.add(i);
+                } else {
+                    log.warn("Replica {} fora do rodizio: atraso de {} ms", replica.getPoolName(), atraso.toMillis());
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} fora do rodizio: {}", replica.getPoolName(), e.getMessage());
+            }
+        }
+        disponiveis = List.copyOf(ativas);
+    }
+
+    private static Duration atraso(Connection conexao) throws SQLException {
+        if (!conexao.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL")) {
+            return Duration.ZERO;
+        }
+        try (Statement statement = conexao.createStatement(); ResultSet resultado = statement.executeQuery(CONSULTA_ATRASO_POSTGRES)) {
+            resultado.next();
+            return Duration.ofMillis((long) (resultado.getDouble(1) * 1000));
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primario.close();
+    }
+}
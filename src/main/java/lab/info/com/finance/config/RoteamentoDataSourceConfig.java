@@ -0,0 +1,71 @@
+package lab.info.com.finance.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Substitui o DataSource da aplicacao por um que roteia as transacoes somente leitura para as
+ * replicas. So e ativada quando ha ao menos uma replica em {@code finance.datasource.replicas}.
+ */
+@Configuration
+@ConditionalOnProperty("finance.datasource.replicas[0].url")
+@EnableConfigurationProperties(RoteamentoProperties.class)
+public class RoteamentoDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    RoteamentoDataSource roteamentoDataSource(DataSourceProperties dataSourceProperties, RoteamentoProperties properties,
+                                              Environment environment, ObjectProvider<MeterRegistry> registry) {
+        HikariDataSource primario = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        if (primario.getPoolName() == null) {
+            primario.setPoolName("finance");
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>(properties.replicas().size());
+        for (RoteamentoProperties.Replica replica : properties.replicas()) {
+            HikariConfig config = new HikariConfig();
+            primario.copyStateTo(config);
+            config.setJdbcUrl(replica.url());
+            config.setUsername(replica.username() == null ? primario.getUsername() : replica.username());
+            config.setPassword(replica.password() == null ? primario.getPassword() : replica.password());
+            config.setPoolName(primario.getPoolName() + "-replica-" + replicas.size());
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+
+        // os pools nao sao beans, entao as metricas do Hikari sao ligadas aqui
+        registry.ifAvailable(meterRegistry -> {
+            primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.forEach(replica -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+        });
+        return new RoteamentoDataSource(primario, replicas, properties.leituraAposEscrita(), properties.atrasoMaximo());
+    }
+
+    @Bean
+    LeituraAposEscrita leituraAposEscrita(RoteamentoDataSource roteamentoDataSource) {
+        return roteamentoDataSource::registrarEscritaAceita;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+        return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+    }
+}
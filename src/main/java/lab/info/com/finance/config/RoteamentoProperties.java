@@ -0,0 +1,27 @@
+package lab.info.com.finance.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replicas de leitura e os limites de defasagem aceitos ao ler delas.
+ *
+ * @param replicas           bancos que recebem as transacoes somente leitura; as demais
+ *                           configuracoes do pool sao as de {@code spring.datasource.hikari}
+ * @param leituraAposEscrita por quanto tempo depois de uma escrita o mesmo cliente continua lendo
+ *                           do primario; zero desliga
+ * @param atrasoMaximo       replica com atraso de replicacao maior que este deixa de receber leituras
+ *                           ate alcancar o primario
+ */
+@ConfigurationProperties("finance.datasource")
+public record RoteamentoProperties(
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration leituraAposEscrita,
+        @DefaultValue("10s") Duration atrasoMaximo) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
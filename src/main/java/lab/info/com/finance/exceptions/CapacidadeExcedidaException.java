@@ -0,0 +1,10 @@
+package lab.info.com.finance.exceptions;
+
+/**
+ * A requisicao foi recusada por falta de capacidade momentanea; pode ser repetida mais tarde.
+ */
+public class CapacidadeExcedidaException extends RuntimeException {
+    public CapacidadeExcedidaException(String msg) {
+        super(msg);
+    }
+}
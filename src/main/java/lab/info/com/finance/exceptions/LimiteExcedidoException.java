@@ -0,0 +1,10 @@
+package lab.info.com.finance.exceptions;
+
+/**
+ * A requisicao passa de um limite configurado; repeti-la como esta nao adianta.
+ */
+public class LimiteExcedidoException extends RuntimeException {
+    public LimiteExcedidoException(String msg) {
+        super(msg);
+    }
+}
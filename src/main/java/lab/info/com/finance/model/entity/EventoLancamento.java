@@ -0,0 +1,86 @@
+package lab.info.com.finance.model.entity;
+
+import jakarta.persistence.*;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoEventoLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Linha do jornal de lancamentos: o estado de um lancamento com sinal +1 (passou a valer) ou
+ * -1 (deixou de valer). Nunca e alterada nem removida.
+ */
+@Entity
+@Table(name = "evento_lancamento", schema = "fin")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoLancamento {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_lancamento_seq")
+    @SequenceGenerator(name = "evento_lancamento_seq", schema = "fin", sequenceName = "evento_lancamento_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "tipo_evento")
+    @Enumerated(value = EnumType.STRING)
+    private TipoEventoLancamento tipoEvento;
+
+    @Column(name = "id_lancamento")
+    private Long idLancamento;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "tipo")
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "status")
+    @Enumerated(value = EnumType.STRING)
+    private StatusLancamento status;
+
+    @Column(name = "valor")
+    private BigDecimal valor;
+
+    @Column(name = "sinal")
+    private Integer sinal;
+
+    @Column(name = "data_evento")
+    private LocalDateTime dataEvento;
+
+    /**
+     * O valor vai com a escala da coluna, para que o evento aplicado logo apos o commit some igual
+     * ao lido depois no replay.
+     */
+    public static EventoLancamento de(TipoEventoLancamento tipoEvento, LancamentoEstado estado, int sinal, LocalDateTime dataEvento) {
+        return EventoLancamento.builder()
+                .tipoEvento(tipoEvento)
+                .idLancamento(estado.id())
+                .idUsuario(estado.idUsuario())
+                .ano(estado.ano())
+                .mes(estado.mes())
+                .tipo(estado.tipo())
+                .status(estado.status())
+                .valor(estado.valor() == null ? null : estado.valor().setScale(2, RoundingMode.HALF_UP))
+                .sinal(sinal)
+                .dataEvento(dataEvento)
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package lab.info.com.finance.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ultimo mes fechado do usuario: ele e todos os anteriores nao aceitam mais alteracoes.
+ */
+@Entity
+@Table(name = "fechamento", schema = "fin")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Fechamento {
+
+    @Id
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "data_fechamento")
+    private LocalDateTime dataFechamento;
+}
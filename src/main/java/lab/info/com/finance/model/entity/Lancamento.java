@@ -3,10 +3,13 @@ package lab.info.com.finance.model.entity;
 import jakarta.persistence.*;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import java.math.BigDecimal;
@@ -22,7 +25,8 @@ public class Lancamento {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+    @SequenceGenerator(name = "lancamento_seq", schema = "fin", sequenceName = "lancamento_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "descricao")
@@ -34,8 +38,10 @@ public class Lancamento {
     @Column(name = "ano")
     private Integer ano ;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Usuario usuario;
 
     @Column(name = "valor")
@@ -52,4 +58,14 @@ public class Lancamento {
     @Column(name = "status")
     @Enumerated(value = EnumType.STRING)
     private StatusLancamento status;
+
+    @Column(name = "id_grupo")
+    private Long idGrupo;
+
+    @Column(name = "parcela")
+    private Integer parcela;
+
+    @Column(name = "recorrencia")
+    @Enumerated(value = EnumType.STRING)
+    private TipoRecorrencia recorrencia;
 }
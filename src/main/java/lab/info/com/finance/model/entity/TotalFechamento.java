@@ -0,0 +1,51 @@
+package lab.info.com.finance.model.entity;
+
+import jakarta.persistence.*;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais de um mes fechado por tipo e status, gravados no fechamento e nunca mais alterados.
+ */
+@Entity
+@Table(name = "fechamento_total", schema = "fin")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalFechamento {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_usuario")
+    private Long idUsuario;
+
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Column(name = "mes")
+    private Integer mes;
+
+    @Column(name = "tipo")
+    @Enumerated(value = EnumType.STRING)
+    private TipoLancamento tipo;
+
+    @Column(name = "status")
+    @Enumerated(value = EnumType.STRING)
+    private StatusLancamento status;
+
+    @Column(name = "quantidade")
+    private Long quantidade;
+
+    @Column(name = "valor")
+    private BigDecimal valor;
+}
@@ -0,0 +1,11 @@
+package lab.info.com.finance.model.enums;
+
+/**
+ * Campos pelos quais os lancamentos de um usuario podem ser agrupados.
+ */
+public enum DimensaoLancamento {
+    ANO,
+    MES,
+    TIPO,
+    STATUS
+}
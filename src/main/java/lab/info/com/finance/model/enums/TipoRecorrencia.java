@@ -0,0 +1,5 @@
+package lab.info.com.finance.model.enums;
+
+public enum TipoRecorrencia {
+    PARCELADA, MENSAL
+}
@@ -0,0 +1,6 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+
+public record ContagemStatus(StatusLancamento status, Long quantidade) {
+}
@@ -0,0 +1,31 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.exceptions.RegraNegocioException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posicao de uma pagina na ordenacao estavel (ano, mes, id) de lancamentos.
+ * Trafega para o cliente como um token opaco.
+ */
+public record CursorLancamento(int ano, int mes, long id) {
+
+    public static CursorLancamento depoisDe(LancamentoProjecao lancamento) {
+        return new CursorLancamento(lancamento.ano(), lancamento.mes(), lancamento.id());
+    }
+
+    public String codificar() {
+        String chave = ano + ":" + mes + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(chave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorLancamento decodificar(String token) {
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            return new CursorLancamento(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), Long.parseLong(partes[2]));
+        } catch (RuntimeException e) {
+            throw new RegraNegocioException("Cursor de paginação inválido.");
+        }
+    }
+}
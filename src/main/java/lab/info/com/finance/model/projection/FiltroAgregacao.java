@@ -0,0 +1,16 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+/**
+ * Restricoes de uma agregacao; campos nulos nao filtram.
+ */
+public record FiltroAgregacao(
+        Integer ano,
+        Integer mes,
+        TipoLancamento tipo,
+        StatusLancamento status) {
+
+    public static final FiltroAgregacao TODOS = new FiltroAgregacao(null, null, null, null);
+}
@@ -0,0 +1,18 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantidade e soma de um grupo de lancamentos; as dimensoes que nao foram agrupadas ficam nulas.
+ */
+public record GrupoLancamentos(
+        Integer ano,
+        Integer mes,
+        TipoLancamento tipo,
+        StatusLancamento status,
+        long quantidade,
+        BigDecimal valor) {
+}
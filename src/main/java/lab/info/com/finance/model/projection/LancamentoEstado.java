@@ -0,0 +1,41 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+/**
+ * Fotografia imutavel dos campos de um lancamento que afetam agregados (saldo, totais).
+ * Capturada antes de uma escrita para que o estado anterior nao seja perdido no merge.
+ */
+public record LancamentoEstado(
+        Long id,
+        Long idUsuario,
+        Integer ano,
+        Integer mes,
+        TipoLancamento tipo,
+        StatusLancamento status,
+        BigDecimal valor) {
+
+    public static LancamentoEstado de(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+        return new LancamentoEstado(
+                lancamento.getId(),
+                idUsuario,
+                lancamento.getAno(),
+                lancamento.getMes(),
+                lancamento.getTipo(),
+                lancamento.getStatus(),
+                lancamento.getValor());
+    }
+
+    public LancamentoEstado comStatus(StatusLancamento novoStatus) {
+        return new LancamentoEstado(id, idUsuario, ano, mes, tipo, novoStatus, valor);
+    }
+
+    public LancamentoEstado comValor(BigDecimal novoValor) {
+        return new LancamentoEstado(id, idUsuario, ano, mes, tipo, status, novoValor);
+    }
+}
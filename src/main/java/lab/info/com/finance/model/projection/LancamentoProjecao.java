@@ -0,0 +1,42 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Colunas de um lancamento usadas nas consultas de leitura. O usuario vem apenas como o id
+ * da chave estrangeira, sem carregar a entidade Usuario nem anexar nada a sessao.
+ */
+public record LancamentoProjecao(
+        Long id,
+        String descricao,
+        Integer mes,
+        Integer ano,
+        Long idUsuario,
+        BigDecimal valor,
+        LocalDate dataCadastro,
+        TipoLancamento tipo,
+        StatusLancamento status,
+        Long idGrupo,
+        Integer parcela) {
+
+    public static LancamentoProjecao de(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+        return new LancamentoProjecao(
+                lancamento.getId(),
+                lancamento.getDescricao(),
+                lancamento.getMes(),
+                lancamento.getAno(),
+                idUsuario,
+                lancamento.getValor(),
+                lancamento.getDataCadastro(),
+                lancamento.getTipo(),
+                lancamento.getStatus(),
+                lancamento.getIdGrupo(),
+                lancamento.getParcela());
+    }
+}
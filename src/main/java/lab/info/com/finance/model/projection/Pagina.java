@@ -0,0 +1,9 @@
+package lab.info.com.finance.model.projection;
+
+import java.util.List;
+
+/**
+ * Pagina de uma consulta por cursor. {@code proximoCursor} e nulo na ultima pagina.
+ */
+public record Pagina<T>(List<T> itens, String proximoCursor) {
+}
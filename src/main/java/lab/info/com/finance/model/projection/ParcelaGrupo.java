@@ -0,0 +1,26 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+
+import java.math.BigDecimal;
+
+/**
+ * Lancamento de um grupo com a posicao e a recorrencia, para editar o grupo sem carregar as entidades.
+ */
+public record ParcelaGrupo(
+        Long id,
+        Long idUsuario,
+        Integer ano,
+        Integer mes,
+        TipoLancamento tipo,
+        StatusLancamento status,
+        BigDecimal valor,
+        Integer parcela,
+        TipoRecorrencia recorrencia) {
+
+    public LancamentoEstado estado() {
+        return new LancamentoEstado(id, idUsuario, ano, mes, tipo, status, valor);
+    }
+}
@@ -0,0 +1,13 @@
+package lab.info.com.finance.model.projection;
+
+import java.util.List;
+
+/**
+ * Relatorio de uma importacao em lote: as linhas sao numeradas a partir de 1,
+ * na ordem em que foram recebidas.
+ */
+public record ResultadoImportacao(int recebidos, int importados, List<Erro> erros) {
+
+    public record Erro(int linha, String mensagem) {
+    }
+}
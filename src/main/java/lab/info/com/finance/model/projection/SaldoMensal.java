@@ -0,0 +1,13 @@
+package lab.info.com.finance.model.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldo efetivado do usuario ao fim de um mes e quanto ele mudou dentro do mes.
+ */
+public record SaldoMensal(
+        Integer ano,
+        Integer mes,
+        BigDecimal movimento,
+        BigDecimal saldo) {
+}
@@ -0,0 +1,18 @@
+package lab.info.com.finance.model.projection;
+
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantidade e soma dos lancamentos de um mes com o mesmo tipo e status.
+ */
+public record TotalPeriodo(
+        Integer ano,
+        Integer mes,
+        TipoLancamento tipo,
+        StatusLancamento status,
+        Long quantidade,
+        BigDecimal valor) {
+}
@@ -0,0 +1,7 @@
+package lab.info.com.finance.model.projection;
+
+/**
+ * Versao dos lancamentos de um usuario, incrementada a cada escrita que os afeta.
+ */
+public record VersaoUsuario(Long idUsuario, long versao) {
+}
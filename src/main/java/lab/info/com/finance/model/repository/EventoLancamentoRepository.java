@@ -0,0 +1,22 @@
+package lab.info.com.finance.model.repository;
+
+import jakarta.persistence.QueryHint;
+import lab.info.com.finance.model.entity.EventoLancamento;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
+
+public interface EventoLancamentoRepository extends JpaRepository<EventoLancamento, Long> {
+
+    /**
+     * Todo o jornal, em ordem. O construtor cria instancias fora do contexto de persistencia, entao
+     * percorrer milhoes de eventos nao acumula entidades gerenciadas.
+     */
+    @Query("select new lab.info.com.finance.model.entity.EventoLancamento(e.id, e.tipoEvento, e.idLancamento, e.idUsuario, " +
+            "e.ano, e.mes, e.tipo, e.status, e.valor, e.sinal, e.dataEvento) from EventoLancamento e order by e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<EventoLancamento> streamTodos();
+}
@@ -0,0 +1,26 @@
+package lab.info.com.finance.model.repository;
+
+import jakarta.persistence.LockModeType;
+import lab.info.com.finance.model.entity.Fechamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface FechamentoRepository extends JpaRepository<Fechamento, Long> {
+
+    /**
+     * Bloqueia a linha do usuario, que ao contrario do fechamento sempre existe: escritas usam o
+     * bloqueio compartilhado e o fechamento o exclusivo, entao nenhum lancamento entra num mes
+     * enquanto ele e fechado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select u.id from Usuario u where u.id = :idUsuario")
+    Optional<Long> bloquearUsuarioParaEscrita(@Param("idUsuario") Long idUsuario);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from Usuario u where u.id = :idUsuario")
+    Optional<Long> bloquearUsuarioParaFechamento(@Param("idUsuario") Long idUsuario);
+}
@@ -3,13 +3,33 @@ package lab.info.com.finance.model.repository;
 import lab.info.com.finance.model.entity.Lancamento;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.ContagemStatus;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.ParcelaGrupo;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
+
+    /**
+     * Select das consultas de leitura. {@code l.usuario.id} e lido da chave estrangeira, sem join em usuario.
+     */
+    String PROJECAO = "select new lab.info.com.finance.model.projection.LancamentoProjecao(" +
+            "l.id, l.descricao, l.mes, l.ano, l.usuario.id, l.valor, l.dataCadastro, l.tipo, l.status, l.idGrupo, l.parcela) from Lancamento l ";
 
     @Query(value = "select sum(l.valor) from Lancamento l " +
             " inner join l.usuario u " +
@@ -18,4 +38,134 @@ public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
             " and l.status = :status " +
             "group by u ")
     BigDecimal obterSaldoPorUsuario(@Param("id") Long id, @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+
+    @Query("select coalesce(sum(case when l.tipo = lab.info.com.finance.model.enums.TipoLancamento.RECEITA then l.valor else -l.valor end), 0) " +
+            " from Lancamento l " +
+            " where l.usuario.id = :id " +
+            " and l.status = lab.info.com.finance.model.enums.StatusLancamento.EFETIVADO ")
+    BigDecimal calcularSaldoPorUsuario(@Param("id") Long id);
+
+    /**
+     * Meses depois de (ano, mes) e ate (anoFim, mesFim), inclusive; resolvido por faixa em
+     * ix_lancamento_usuario_periodo.
+     */
+    String ENTRE_PERIODOS = " (l.ano > :ano or (l.ano = :ano and l.mes > :mes)) " +
+            " and (l.ano < :anoFim or (l.ano = :anoFim and l.mes <= :mesFim)) ";
+
+    @Query("select coalesce(sum(case when l.tipo = lab.info.com.finance.model.enums.TipoLancamento.RECEITA then l.valor else -l.valor end), 0) " +
+            " from Lancamento l " +
+            " where l.usuario.id = :id " +
+            " and l.status = lab.info.com.finance.model.enums.StatusLancamento.EFETIVADO " +
+            " and (l.ano > :ano or (l.ano = :ano and l.mes > :mes)) ")
+    BigDecimal calcularSaldoPorUsuarioApos(@Param("id") Long id, @Param("ano") Integer ano, @Param("mes") Integer mes);
+
+    @Query("select coalesce(sum(case when l.tipo = lab.info.com.finance.model.enums.TipoLancamento.RECEITA then l.valor else -l.valor end), 0) " +
+            " from Lancamento l " +
+            " where l.usuario.id = :idUsuario " +
+            " and l.status = lab.info.com.finance.model.enums.StatusLancamento.EFETIVADO and " + ENTRE_PERIODOS)
+    BigDecimal calcularSaldoEntrePeriodos(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                          @Param("anoFim") Integer anoFim, @Param("mesFim") Integer mesFim);
+
+    @Query("select new lab.info.com.finance.model.projection.TotalPeriodo(l.ano, l.mes, l.tipo, l.status, count(l), sum(l.valor)) " +
+            " from Lancamento l " +
+            " where l.usuario.id = :idUsuario and " + ENTRE_PERIODOS +
+            " group by l.ano, l.mes, l.tipo, l.status " +
+            " order by l.ano, l.mes, l.tipo, l.status")
+    List<TotalPeriodo> totalizarPeriodos(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                         @Param("anoFim") Integer anoFim, @Param("mesFim") Integer mesFim);
+
+    /**
+     * Totais por ano, mes, tipo e status dos lancamentos que passam no filtro; parametros nulos nao filtram.
+     */
+    @Query("select new lab.info.com.finance.model.projection.TotalPeriodo(l.ano, l.mes, l.tipo, l.status, count(l), sum(l.valor)) " +
+            " from Lancamento l " +
+            " where l.usuario.id = :idUsuario " +
+            " and (:ano is null or l.ano = :ano) and (:mes is null or l.mes = :mes) " +
+            " and (:tipo is null or l.tipo = :tipo) and (:status is null or l.status = :status) " +
+            " group by l.ano, l.mes, l.tipo, l.status")
+    List<TotalPeriodo> totalizarPorFiltro(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                          @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+
+    @Query("select count(l) from Lancamento l " +
+            " where l.usuario.id = :idUsuario and l.status = :status and " + ENTRE_PERIODOS)
+    long contarPorStatusEntrePeriodos(@Param("idUsuario") Long idUsuario, @Param("status") StatusLancamento status,
+                                      @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                      @Param("anoFim") Integer anoFim, @Param("mesFim") Integer mesFim);
+
+    @Query("select new lab.info.com.finance.model.projection.ContagemStatus(l.status, count(l)) " +
+            " from Lancamento l where l.usuario.id = :idUsuario group by l.status")
+    List<ContagemStatus> contarPorStatus(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Estado da linha gravada. Sem o flush automatico: uma entidade gerenciada ja alterada seria gravada
+     * antes da leitura, e o estado lido deixaria de ser o anterior a alteracao.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("select new lab.info.com.finance.model.projection.LancamentoEstado(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+            " from Lancamento l where l.id = :id")
+    Optional<LancamentoEstado> obterEstado(@Param("id") Long id);
+
+    @Query("select new lab.info.com.finance.model.projection.LancamentoEstado(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+            " from Lancamento l where l.id in :ids")
+    List<LancamentoEstado> obterEstados(@Param("ids") Collection<Long> ids);
+
+    @Query("select new lab.info.com.finance.model.projection.LancamentoEstado(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+            " from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.status = :status")
+    List<LancamentoEstado> obterEstadosPorPeriodo(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano,
+                                                  @Param("mes") Integer mes, @Param("status") StatusLancamento status);
+
+    /**
+     * Troca o status apenas das linhas que ainda estao em {@code atual}; o retorno menor que o
+     * numero de ids indica que outra transacao alterou alguma delas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Lancamento l set l.status = :novo where l.id in :ids and l.status = :atual")
+    int atualizarStatus(@Param("ids") Collection<Long> ids, @Param("atual") StatusLancamento atual,
+                        @Param("novo") StatusLancamento novo);
+
+    @Query("select new lab.info.com.finance.model.projection.LancamentoEstado(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+            " from Lancamento l where l.idGrupo = :idGrupo and l.status = :status")
+    List<LancamentoEstado> obterEstadosPorGrupo(@Param("idGrupo") Long idGrupo, @Param("status") StatusLancamento status);
+
+    @Query("select new lab.info.com.finance.model.projection.ParcelaGrupo(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor, " +
+            " l.parcela, l.recorrencia) " +
+            " from Lancamento l where l.idGrupo = :idGrupo and l.status = :status order by l.parcela")
+    List<ParcelaGrupo> obterParcelasPorGrupo(@Param("idGrupo") Long idGrupo, @Param("status") StatusLancamento status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Lancamento l set l.descricao = :descricao, l.valor = :valor, l.dataCadastro = :dataCadastro " +
+            " where l.id in :ids and l.status = :status")
+    int atualizarPorIds(@Param("ids") Collection<Long> ids, @Param("status") StatusLancamento status,
+                        @Param("descricao") String descricao, @Param("valor") BigDecimal valor,
+                        @Param("dataCadastro") LocalDate dataCadastro);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Lancamento l set l.descricao = :descricao, l.valor = :valor, l.dataCadastro = :dataCadastro " +
+            " where l.idGrupo = :idGrupo and l.status = :status")
+    int atualizarPorGrupo(@Param("idGrupo") Long idGrupo, @Param("status") StatusLancamento status,
+                          @Param("descricao") String descricao, @Param("valor") BigDecimal valor,
+                          @Param("dataCadastro") LocalDate dataCadastro);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Lancamento l set l.status = :novo where l.idGrupo = :idGrupo and l.status = :atual")
+    int atualizarStatusPorGrupo(@Param("idGrupo") Long idGrupo, @Param("atual") StatusLancamento atual,
+                                @Param("novo") StatusLancamento novo);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update Lancamento l set l.status = :novo " +
+            " where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.status = :atual")
+    int atualizarStatusPorPeriodo(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                  @Param("atual") StatusLancamento atual, @Param("novo") StatusLancamento novo);
+
+    @Query(PROJECAO + "where l.id = :id")
+    Optional<LancamentoProjecao> obterProjecao(@Param("id") Long id);
+
+    @Query(PROJECAO + "where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LancamentoProjecao> streamPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    @Query("select new lab.info.com.finance.model.projection.LancamentoEstado(l.id, l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+            " from Lancamento l where l.usuario.id = :idUsuario")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<LancamentoEstado> streamEstadosPorUsuario(@Param("idUsuario") Long idUsuario);
 }
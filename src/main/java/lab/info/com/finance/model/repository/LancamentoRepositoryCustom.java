@@ -0,0 +1,48 @@
+package lab.info.com.finance.model.repository;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.projection.CursorLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import org.springframework.data.domain.Example;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface LancamentoRepositoryCustom {
+
+    /**
+     * Busca os lancamentos que atendem ao exemplo, ordenados por (ano, mes, id). O usuario do
+     * exemplo e comparado apenas pelo id, na chave estrangeira.
+     */
+    List<LancamentoProjecao> buscarProjecoes(Example<Lancamento> example);
+
+    /**
+     * Busca ate {@code limite} lancamentos que atendem ao exemplo, ordenados por (ano, mes, id)
+     * e posicionados depois do cursor informado (ou desde o inicio, quando nulo).
+     */
+    List<LancamentoProjecao> buscarPagina(Example<Lancamento> example, CursorLancamento cursor, int limite);
+
+    /**
+     * Busca ate {@code limite} lancamentos do usuario cuja descricao contem todos os termos do texto,
+     * sem diferenciar acentos, ordenados pela relevancia. No PostgreSQL usa o indice de texto
+     * da descricao; em outros bancos filtra as linhas do usuario em memoria.
+     */
+    List<LancamentoProjecao> buscarPorTexto(Long idUsuario, String texto, int limite);
+
+    /**
+     * Garante que exista a particao de lancamento do ano informado. So o PostgreSQL particiona a tabela;
+     * nos demais bancos nao faz nada.
+     */
+    void criarParticao(int ano);
+
+    /**
+     * Anos que tem particao de lancamento. Vazio fora do PostgreSQL, onde a tabela nao e particionada.
+     */
+    Optional<Set<Integer>> obterAnosComParticao();
+
+    /**
+     * Proximo valor de grupo_lancamento_seq, o id que as parcelas de uma recorrencia compartilham.
+     */
+    long proximoGrupo();
+}
@@ -0,0 +1,202 @@
+package lab.info.com.finance.model.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.CursorLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Example;
+import org.springframework.data.jpa.convert.QueryByExamplePredicateBuilder;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LancamentoProjecao> buscarProjecoes(Example<Lancamento> example) {
+        return consultar(example, null, null);
+    }
+
+    @Override
+    public List<LancamentoProjecao> buscarPagina(Example<Lancamento> example, CursorLancamento cursor, int limite) {
+        return consultar(example, cursor, limite);
+    }
+
+    private List<LancamentoProjecao> consultar(Example<Lancamento> example, CursorLancamento cursor, Integer limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LancamentoProjecao> query = cb.createQuery(LancamentoProjecao.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        // pelo exemplo o usuario viraria um join comparando todos os seus campos; basta a chave estrangeira
+        List<Predicate> predicados = new ArrayList<>();
+        Usuario usuario = example.getProbe().getUsuario();
+        if (usuario != null && usuario.getId() != null) {
+            predicados.add(cb.equal(root.get("usuario").get("id"), usuario.getId()));
+        }
+        Example<Lancamento> semUsuario = Example.of(example.getProbe(), example.getMatcher().withIgnorePaths("usuario"));
+        Predicate filtro = QueryByExamplePredicateBuilder.getPredicate(root, cb, semUsuario, EscapeCharacter.DEFAULT);
+        if (filtro != null) {
+            predicados.add(filtro);
+        }
+
+        Path<Integer> ano = root.get("ano");
+        Path<Integer> mes = root.get("mes");
+        Path<Long> id = root.get("id");
+        if (cursor != null) {
+            // o limite em ano e redundante com o "ou", mas e ele que vira a faixa no indice (id_usuario, ano, mes, id)
+            predicados.add(cb.greaterThanOrEqualTo(ano, cursor.ano()));
+            predicados.add(cb.or(
+                    cb.greaterThan(ano, cursor.ano()),
+                    cb.and(cb.equal(ano, cursor.ano()), cb.greaterThan(mes, cursor.mes())),
+                    cb.and(cb.equal(ano, cursor.ano()), cb.equal(mes, cursor.mes()), cb.greaterThan(id, cursor.id()))));
+        }
+
+        query.select(cb.construct(LancamentoProjecao.class, id, root.get("descricao"), mes, ano,
+                        root.get("usuario").get("id"), root.get("valor"), root.get("dataCadastro"), root.get("tipo"), root.get("status"),
+                        root.get("idGrupo"), root.get("parcela")))
+                .where(predicados.toArray(new Predicate[0]))
+                .orderBy(cb.asc(ano), cb.asc(mes), cb.asc(id));
+
+        TypedQuery<LancamentoProjecao> consulta = entityManager.createQuery(query);
+        if (limite != null) {
+            consulta.setMaxResults(limite);
+        }
+        return consulta.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<LancamentoProjecao> buscarPorTexto(Long idUsuario, String texto, int limite) {
+        if (!postgres()) {
+            return buscarPorTextoEmMemoria(idUsuario, texto, limite);
+        }
+        // a expressao de to_tsvector precisa ser a mesma de ix_lancamento_descricao_busca
+        List<Object[]> linhas = entityManager.createNativeQuery(
+                        "select l.id, l.descricao, l.mes, l.ano, l.id_usuario, l.valor, l.data_cadastro, l.tipo, l.status, l.id_grupo, l.parcela " +
+                        "from fin.lancamento l, websearch_to_tsquery('fin.portugues', :texto) consulta " +
+                        "where l.id_usuario = :idUsuario " +
+                        "and to_tsvector('fin.portugues', coalesce(l.descricao, '')) @@ consulta " +
+                        "order by ts_rank(to_tsvector('fin.portugues', coalesce(l.descricao, '')), consulta) desc, l.id desc " +
+                        "limit :limite")
+                .setParameter("texto", texto)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("limite", limite)
+                .getResultList();
+        return linhas.stream().map(LancamentoRepositoryImpl::projecao).toList();
+    }
+
+    private List<LancamentoProjecao> buscarPorTextoEmMemoria(Long idUsuario, String texto, int limite) {
+        List<String> consulta = TermosBusca.de(texto);
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        try (Stream<LancamentoProjecao> lancamentos = entityManager
+                .createQuery(LancamentoRepository.PROJECAO + "where l.usuario.id = :idUsuario", LancamentoProjecao.class)
+                .setParameter("idUsuario", idUsuario)
+                .getResultStream()) {
+            return lancamentos
+                    .map(lancamento -> Map.entry(lancamento, TermosBusca.relevancia(consulta, TermosBusca.de(lancamento.descricao()))))
+                    .filter(resultado -> resultado.getValue() > 0)
+                    .sorted(Comparator.<Map.Entry<LancamentoProjecao, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                            .thenComparing(resultado -> resultado.getKey().id(), Comparator.reverseOrder()))
+                    .limit(limite)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+
+    @Override
+    public void criarParticao(int ano) {
+        if (!postgres()) {
+            return;
+        }
+        entityManager.createNativeQuery("select fin.criar_particao_lancamento(:ano)")
+                .setParameter("ano", ano)
+                .getSingleResult();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Set<Integer>> obterAnosComParticao() {
+        if (!postgres()) {
+            return Optional.empty();
+        }
+        // as particoes sao criadas por criar_particao_lancamento, sempre com o nome lancamento_<ano>
+        List<String> particoes = entityManager.createNativeQuery(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = cast('fin.lancamento' as regclass)").getResultList();
+        return Optional.of(particoes.stream()
+                .filter(particao -> particao.matches("lancamento_\\d+"))
+                .map(particao -> Integer.valueOf(particao.substring("lancamento_".length())))
+                .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public long proximoGrupo() {
+        String proximo = dialeto().getSequenceSupport().getSequenceNextValString("fin.grupo_lancamento_seq");
+        return ((Number) entityManager.createNativeQuery(proximo).getSingleResult()).longValue();
+    }
+
+    private static LancamentoProjecao projecao(Object[] linha) {
+        return new LancamentoProjecao(
+                ((Number) linha[0]).longValue(),
+                (String) linha[1],
+                linha[2] == null ? null : ((Number) linha[2]).intValue(),
+                linha[3] == null ? null : ((Number) linha[3]).intValue(),
+                linha[4] == null ? null : ((Number) linha[4]).longValue(),
+                (BigDecimal) linha[5],
+                data(linha[6]),
+                linha[7] == null ? null : TipoLancamento.valueOf((String) linha[7]),
+                linha[8] == null ? null : StatusLancamento.valueOf((String) linha[8]),
+                linha[9] == null ? null : ((Number) linha[9]).longValue(),
+                linha[10] == null ? null : ((Number) linha[10]).intValue());
+    }
+
+    private static LocalDate data(Object valor) {
+        if (valor instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        if (valor instanceof LocalDateTime dataHora) {
+            return dataHora.toLocalDate();
+        }
+        if (valor instanceof java.util.Date data) {
+            return new java.sql.Date(data.getTime()).toLocalDate();
+        }
+        return (LocalDate) valor;
+    }
+
+    private boolean postgres() {
+        return dialeto() instanceof PostgreSQLDialect;
+    }
+
+    private Dialect dialeto() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+    }
+}
@@ -0,0 +1,25 @@
+package lab.info.com.finance.model.repository;
+
+import jakarta.persistence.LockModeType;
+import lab.info.com.finance.model.entity.SaldoUsuario;
+import lab.info.com.finance.model.projection.VersaoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SaldoUsuario s where s.idUsuario = :idUsuario")
+    Optional<SaldoUsuario> obterParaAtualizacao(@Param("idUsuario") Long idUsuario);
+
+    @Query("select s.versao from SaldoUsuario s where s.idUsuario = :idUsuario")
+    Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+
+    @Query("select new lab.info.com.finance.model.projection.VersaoUsuario(l.usuario.id, coalesce(s.versao, 0)) " +
+            "from Lancamento l left join SaldoUsuario s on s.idUsuario = l.usuario.id where l.id = :idLancamento")
+    Optional<VersaoUsuario> obterVersaoPorLancamento(@Param("idLancamento") Long idLancamento);
+}
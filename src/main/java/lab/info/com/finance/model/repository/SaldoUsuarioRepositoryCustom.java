@@ -0,0 +1,12 @@
+package lab.info.com.finance.model.repository;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+    /**
+     * Insere o saldo do usuario com o valor informado e versao zero, se ele ainda nao existir. No
+     * PostgreSQL a insercao concorrente espera a primeira e nao faz nada, sem violar a chave.
+     */
+    void criarSeAusente(Long idUsuario, BigDecimal valor);
+}
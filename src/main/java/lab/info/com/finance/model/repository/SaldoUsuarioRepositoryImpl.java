@@ -0,0 +1,33 @@
+package lab.info.com.finance.model.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.math.BigDecimal;
+
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void criarSeAusente(Long idUsuario, BigDecimal valor) {
+        // fora do PostgreSQL (os testes, em H2) basta o not exists: nao ha primeiras escritas concorrentes
+        String sql = postgres()
+                ? "insert into fin.saldo_usuario (id_usuario, valor, versao) values (:idUsuario, :valor, 0) " +
+                  "on conflict (id_usuario) do nothing"
+                : "insert into fin.saldo_usuario (id_usuario, valor, versao) select :idUsuario, :valor, 0 " +
+                  "where not exists (select 1 from fin.saldo_usuario where id_usuario = :idUsuario)";
+        entityManager.createNativeQuery(sql)
+                .setParameter("idUsuario", idUsuario)
+                .setParameter("valor", valor)
+                .executeUpdate();
+    }
+
+    private boolean postgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,52 @@
+package lab.info.com.finance.model.repository;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Quebra um texto em termos minusculos e sem acentos. Usado na busca textual quando o banco
+ * nao tem indice de texto (H2 de desenvolvimento e testes).
+ */
+final class TermosBusca {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TermosBusca() {
+    }
+
+    static List<String> de(String texto) {
+        if (texto == null) {
+            return List.of();
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARADORES.split(normalizado.toLowerCase(Locale.ROOT)))
+                .filter(termo -> !termo.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Quantas palavras do texto comecam por algum termo da consulta, ou zero se algum termo
+     * nao aparece. O prefixo faz o papel do stemmer: "salario" encontra "salarios".
+     */
+    static int relevancia(List<String> consulta, List<String> texto) {
+        int total = 0;
+        for (String termo : consulta) {
+            int ocorrencias = 0;
+            for (String palavra : texto) {
+                if (palavra.startsWith(termo)) {
+                    ocorrencias++;
+                }
+            }
+            if (ocorrencias == 0) {
+                return 0;
+            }
+            total += ocorrencias;
+        }
+        return total;
+    }
+}
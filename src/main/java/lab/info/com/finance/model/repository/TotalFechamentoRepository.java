@@ -0,0 +1,44 @@
+package lab.info.com.finance.model.repository;
+
+import lab.info.com.finance.model.entity.TotalFechamento;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface TotalFechamentoRepository extends JpaRepository<TotalFechamento, Long> {
+
+    @Query("select coalesce(sum(case when t.tipo = lab.info.com.finance.model.enums.TipoLancamento.RECEITA then t.valor else -t.valor end), 0) " +
+            " from TotalFechamento t " +
+            " where t.idUsuario = :idUsuario " +
+            " and t.status = lab.info.com.finance.model.enums.StatusLancamento.EFETIVADO ")
+    BigDecimal calcularSaldoPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Saldo dos meses fechados ate (ano, mes), inclusive.
+     */
+    @Query("select coalesce(sum(case when t.tipo = lab.info.com.finance.model.enums.TipoLancamento.RECEITA then t.valor else -t.valor end), 0) " +
+            " from TotalFechamento t " +
+            " where t.idUsuario = :idUsuario " +
+            " and t.status = lab.info.com.finance.model.enums.StatusLancamento.EFETIVADO " +
+            " and (t.ano < :ano or (t.ano = :ano and t.mes <= :mes)) ")
+    BigDecimal calcularSaldoPorUsuarioAte(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes);
+
+    @Query("select new lab.info.com.finance.model.projection.TotalPeriodo(t.ano, t.mes, t.tipo, t.status, t.quantidade, t.valor) " +
+            " from TotalFechamento t where t.idUsuario = :idUsuario order by t.ano, t.mes, t.tipo, t.status")
+    List<TotalPeriodo> obterTotais(@Param("idUsuario") Long idUsuario);
+
+    /**
+     * Meses fechados depois de (ano, mes) e ate (anoFim, mesFim), inclusive.
+     */
+    @Query("select new lab.info.com.finance.model.projection.TotalPeriodo(t.ano, t.mes, t.tipo, t.status, t.quantidade, t.valor) " +
+            " from TotalFechamento t where t.idUsuario = :idUsuario " +
+            " and (t.ano > :ano or (t.ano = :ano and t.mes > :mes)) " +
+            " and (t.ano < :anoFim or (t.ano = :anoFim and t.mes <= :mesFim)) " +
+            " order by t.ano, t.mes, t.tipo, t.status")
+    List<TotalPeriodo> obterTotaisEntrePeriodos(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                                                @Param("anoFim") Integer anoFim, @Param("mesFim") Integer mesFim);
+}
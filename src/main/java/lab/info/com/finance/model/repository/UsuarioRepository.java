@@ -10,5 +10,6 @@ import java.util.Optional;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     boolean existsByEmail(String email);
+
     Optional<Usuario> findByEmail(String email);
 }
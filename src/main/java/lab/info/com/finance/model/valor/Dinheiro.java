@@ -0,0 +1,74 @@
+package lab.info.com.finance.model.valor;
+
+import java.math.BigDecimal;
+
+/**
+ * Valores monetarios como {@code long} de centavos, para as agregacoes em memoria: somar centavos nao
+ * aloca, enquanto cada {@code BigDecimal.add} cria um objeto novo. Toda operacao verifica estouro e
+ * lanca {@link ArithmeticException} em vez de dar a volta.
+ *
+ * <p>A conversao com {@link BigDecimal} so acontece na fronteira com {@code Lancamento.valor} e as
+ * colunas {@code numeric(16, 2)}, e e exata nos dois sentidos.
+ */
+public final class Dinheiro {
+
+    public static final int ESCALA = 2;
+
+    // numeric(16, 2): ate 14 digitos antes da virgula
+    private static final int DIGITOS_INTEIROS = 14;
+
+    private Dinheiro() {
+    }
+
+    /**
+     * @throws ArithmeticException se o valor tiver mais de duas casas decimais diferentes de zero
+     */
+    public static long centavos(BigDecimal valor) {
+        try {
+            return valor.movePointRight(ESCALA).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Valor não representável em centavos: " + valor.toPlainString());
+        }
+    }
+
+    public static BigDecimal decimal(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    /**
+     * Se o valor cabe em centavos e na coluna {@code valor} sem arredondamento.
+     */
+    public static boolean representavel(BigDecimal valor) {
+        BigDecimal semZeros = valor.scale() <= ESCALA ? valor : valor.stripTrailingZeros();
+        return semZeros.scale() <= ESCALA && semZeros.precision() - semZeros.scale() <= DIGITOS_INTEIROS;
+    }
+
+    public static long somar(long centavos, long outros) {
+        return Math.addExact(centavos, outros);
+    }
+
+    public static long subtrair(long centavos, long outros) {
+        return Math.subtractExact(centavos, outros);
+    }
+
+    public static long negar(long centavos) {
+        return Math.negateExact(centavos);
+    }
+
+    /**
+     * Divide em {@code partes} valores que somam exatamente o total e diferem em no maximo um centavo;
+     * os centavos que sobram da divisao vao para as primeiras partes.
+     */
+    public static long[] dividir(long centavos, int partes) {
+        if (partes < 1) {
+            throw new IllegalArgumentException("Quantidade de partes inválida: " + partes);
+        }
+        long base = Math.floorDiv(centavos, partes);
+        long resto = Math.floorMod(centavos, partes);
+        long[] divididos = new long[partes];
+        for (int i = 0; i < partes; i++) {
+            divididos[i] = i < resto ? base + 1 : base;
+        }
+        return divididos;
+    }
+}
@@ -0,0 +1,17 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+
+import java.util.List;
+import java.util.Set;
+
+public interface AgregacaoService {
+
+    /**
+     * Quantidade e soma dos lancamentos do usuario que passam no filtro, agrupados pelas dimensoes
+     * informadas. Com a leitura em memoria ligada, responde das colunas do usuario em cache.
+     */
+    List<GrupoLancamentos> agregar(Long idUsuario, FiltroAgregacao filtro, Set<DimensaoLancamento> dimensoes);
+}
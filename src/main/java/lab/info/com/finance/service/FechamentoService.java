@@ -0,0 +1,53 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.entity.Fechamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.SaldoMensal;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FechamentoService {
+
+    /**
+     * Fecha os meses do usuario ate ano/mes, inclusive, congelando seus totais por tipo e status.
+     * So aceita meses ja encerrados, posteriores ao ultimo fechamento e sem lancamentos pendentes.
+     */
+    Fechamento fechar(Long idUsuario, Integer ano, Integer mes);
+
+    /**
+     * Ultimo mes fechado do usuario. Bloqueia novos fechamentos do usuario ate o fim da transacao,
+     * entao deve ser chamado na transacao da escrita que depende da resposta.
+     */
+    Optional<YearMonth> obterUltimoPeriodoFechado(Long idUsuario);
+
+    /**
+     * Rejeita com {@link lab.info.com.finance.exceptions.RegraNegocioException} se algum dos estados
+     * cair num mes fechado. Estados nulos ou sem usuario/periodo sao ignorados.
+     */
+    void verificarPeriodosAbertos(Collection<LancamentoEstado> estados);
+
+    /**
+     * Saldo efetivado do usuario: totais congelados dos meses fechados mais os lancamentos dos
+     * meses abertos.
+     */
+    BigDecimal calcularSaldo(Long idUsuario);
+
+    /**
+     * Totais de cada mes por tipo e status, em ordem (ano, mes). Vem da projecao em memoria quando
+     * disponivel; senao os meses fechados vem dos totais congelados e so os abertos sao agregados a
+     * partir dos lancamentos.
+     */
+    List<TotalPeriodo> obterTotaisMensais(Long idUsuario);
+
+    /**
+     * Saldo efetivado acumulado ao fim de cada mes de inicio a fim, inclusive, um item por mes mesmo
+     * sem lancamentos. Calculado numa passada pelos totais mensais em ordem, entao o custo acompanha
+     * a quantidade de meses e nao a de lancamentos.
+     */
+    List<SaldoMensal> obterEvolucaoSaldo(Long idUsuario, YearMonth inicio, YearMonth fim);
+}
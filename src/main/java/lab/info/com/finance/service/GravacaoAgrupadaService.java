@@ -0,0 +1,17 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.entity.Lancamento;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface GravacaoAgrupadaService {
+
+    /**
+     * Valida o lancamento na hora e o coloca na fila do gravador, que grava varios por transacao.
+     * O futuro completa com o lancamento ja com id depois do commit do lote dele, ou falha com o
+     * motivo, inclusive quando o mes foi fechado entre a validacao e a gravacao.
+     *
+     * @throws lab.info.com.finance.exceptions.CapacidadeExcedidaException se a fila estiver cheia
+     */
+    CompletableFuture<Lancamento> enfileirar(Lancamento lancamento);
+}
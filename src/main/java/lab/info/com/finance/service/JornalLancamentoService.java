@@ -0,0 +1,22 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.enums.TipoEventoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+
+import java.util.List;
+
+public interface JornalLancamentoService {
+
+    /**
+     * Acrescenta ao jornal a troca dos estados anteriores pelos atuais, na transacao corrente. Pares
+     * iguais nao geram eventos; estados sem usuario sao ignorados. As projecoes em memoria so recebem
+     * os eventos depois do commit.
+     */
+    void registrar(TipoEventoLancamento tipoEvento, List<LancamentoEstado> anteriores, List<LancamentoEstado> atuais);
+
+    /**
+     * Indica se as leituras podem ser respondidas pelas projecoes: o replay terminou e a leitura em
+     * memoria esta ligada.
+     */
+    boolean emMemoria();
+}
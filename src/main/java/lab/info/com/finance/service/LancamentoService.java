@@ -1,26 +1,119 @@
 package lab.info.com.finance.service;
 
 import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.SaldoUsuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.Pagina;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.model.projection.VersaoUsuario;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
 
     Lancamento salvar(Lancamento lancamento);
+
+    /**
+     * Valida e grava os lancamentos em lotes JDBC numa unica transacao. Linhas invalidas
+     * nao interrompem a importacao: sao descartadas e relatadas no resultado. Acima de
+     * {@code finance.lancamentos.importacao.maximo-linhas} nada e validado nem gravado.
+     */
+    ResultadoImportacao importar(List<Lancamento> lancamentos);
+
+    /**
+     * Gera a partir do modelo um lancamento por mes, comecando no mes do modelo, com a quantidade de
+     * parcelas ou ate o mes final informado. Parcelada divide o valor do modelo entre as parcelas,
+     * com os centavos que sobram nas primeiras; mensal repete o valor. Todas entram pendentes, num
+     * mesmo grupo e numa unica transacao, gravadas em lotes como na importacao.
+     */
+    List<Lancamento> salvarRecorrencia(Lancamento modelo, TipoRecorrencia recorrencia, Integer parcelas, YearMonth ate);
+
+    /**
+     * Troca descricao e valor das parcelas pendentes do grupo. Na mensal o valor vale para cada mes,
+     * num unico update; na parcelada e o novo total das pendentes, dividido entre elas como na
+     * criacao. As ja efetivadas ou canceladas ficam como estao.
+     */
+    int atualizarGrupo(Long idGrupo, String descricao, BigDecimal valor);
+
+    /**
+     * Cancela todas as parcelas pendentes do grupo num unico update.
+     */
+    int cancelarGrupo(Long idGrupo);
     Lancamento atualizar(Lancamento lancamento);
     void deletar(Lancamento lancamento);
 
-    List<Lancamento> buscar(Lancamento lancamentoFiltro);
+    List<LancamentoProjecao> buscar(Lancamento lancamentoFiltro);
+
+    Pagina<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, String cursor, Integer tamanho);
+
+    /**
+     * Busca textual na descricao: todos os termos precisam aparecer, acentos sao ignorados
+     * e os mais relevantes vem primeiro.
+     */
+    List<LancamentoProjecao> buscarPorTexto(Long idUsuario, String texto, Integer limite);
+
+    /**
+     * Percorre todos os lancamentos do usuario em ordem (ano, mes, id) sem acumula-los em memoria:
+     * cada linha e entregue ao consumidor assim que lida do cursor.
+     */
+    void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor);
     Lancamento atualizarStatus(Lancamento lancamento,  StatusLancamento status);
 
+    /**
+     * Troca apenas o status do lancamento com um update condicionado ao status lido, sem recarregar
+     * nem regravar a linha inteira.
+     */
+    LancamentoProjecao atualizarStatus(Long id, StatusLancamento status);
+
+    /**
+     * Troca o status de varios lancamentos, com um update por status de origem. Retorna quantos
+     * mudaram; os que ja estavam no status informado sao ignorados.
+     */
+    int atualizarStatus(java.util.Collection<Long> ids, StatusLancamento status);
+
+    /**
+     * Troca o status de todos os lancamentos pendentes do usuario no mes, num unico update.
+     */
+    int atualizarStatusDosPendentes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status);
+
     void validar(Lancamento lancamento);
 
+    /**
+     * Valida so os campos do lancamento, sem consultar o banco.
+     */
+    void validarCampos(Lancamento lancamento);
+
     java.util.Optional<Lancamento> obterPorId(Long id);
 
+    java.util.Optional<LancamentoProjecao> obterProjecaoPorId(Long id);
+
     BigDecimal obterSaldoPorUsuario(Long id);
 
+    /**
+     * Quantos lancamentos o usuario tem em cada status; da projecao em memoria quando disponivel.
+     */
+    java.util.Map<StatusLancamento, Long> contarPorStatus(Long idUsuario);
+
+    BigDecimal recalcularSaldoPorUsuario(Long id);
+
+    /**
+     * Saldo e versao lidos juntos, para o ETag de api/usuarios/{id}/saldo.
+     */
+    SaldoUsuario obterSaldoVersionadoPorUsuario(Long id);
+
+    /**
+     * Versao dos lancamentos do usuario, que muda a cada escrita que os afeta. Basta para responder
+     * um If-None-Match sem executar a consulta.
+     */
+    long obterVersaoPorUsuario(Long id);
+
+    java.util.Optional<VersaoUsuario> obterVersaoPorLancamento(Long id);
+
 
 
 }
@@ -0,0 +1,16 @@
+package lab.info.com.finance.service;
+
+public interface ParticaoLancamentoService {
+
+    /**
+     * Cria as particoes do ano corrente ate {@code finance.lancamentos.particoes.anos-seguintes} anos a
+     * frente. Roda ao subir a aplicacao e diariamente, fora das escritas.
+     */
+    void criarParticoes();
+
+    /**
+     * Se ha particao para gravar lancamentos do ano. Responde com os anos lidos na ultima criacao, sem
+     * consultar o banco; sem particionamento aceita qualquer ano.
+     */
+    boolean aceitaAno(int ano);
+}
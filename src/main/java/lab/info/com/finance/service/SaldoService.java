@@ -0,0 +1,48 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.entity.SaldoUsuario;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.VersaoUsuario;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoService {
+
+    /**
+     * Aplica ao saldo materializado a diferenca entre o estado anterior e o atual de um lancamento e
+     * incrementa a versao dos usuarios envolvidos, mesmo quando o saldo nao muda. Deve ser chamado dentro da transacao da escrita e antes dela chegar ao banco, com o estado
+     * anterior lido do banco. Qualquer um dos estados pode ser nulo (insercao ou remocao).
+     */
+    void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+
+    /**
+     * Como {@link #registrar(LancamentoEstado, LancamentoEstado)} para varios lancamentos de uma vez:
+     * cada usuario afetado tem o saldo bloqueado e ajustado uma unica vez.
+     */
+    void registrar(List<LancamentoEstado> anteriores, List<LancamentoEstado> atuais);
+
+    /**
+     * Saldo atual: da projecao em memoria quando disponivel, senao do saldo materializado.
+     */
+    BigDecimal obterSaldo(Long idUsuario);
+
+    BigDecimal recalcularSaldo(Long idUsuario);
+
+    /**
+     * Saldo materializado junto com a versao da mesma linha, para responder com um ETag que
+     * corresponde exatamente ao valor. Sem linha ainda, recalcula o saldo e devolve a versao 0.
+     */
+    SaldoUsuario obterSaldoVersionado(Long idUsuario);
+
+    /**
+     * Versao atual dos lancamentos do usuario; 0 enquanto ele nao tiver escritas registradas.
+     */
+    long obterVersao(Long idUsuario);
+
+    /**
+     * Dono do lancamento e a versao atual dele; vazio se o lancamento nao existe.
+     */
+    Optional<VersaoUsuario> obterVersaoPorLancamento(Long idLancamento);
+}
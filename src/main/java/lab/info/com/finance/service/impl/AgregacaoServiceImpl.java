@@ -0,0 +1,93 @@
+package lab.info.com.finance.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.service.AgregacaoService;
+import lab.info.com.finance.service.JornalLancamentoService;
+import lab.info.com.finance.service.projecao.ColunasLancamentos;
+import lab.info.com.finance.service.projecao.ProjecaoColunar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+@Service
+@Timed("finance.servico")
+public class AgregacaoServiceImpl implements AgregacaoService {
+
+    private static final Comparator<Chave> ORDEM = Comparator
+            .comparing(Chave::ano, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Chave::mes, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Chave::tipo, Comparator.nullsFirst(Comparator.<TipoLancamento>naturalOrder()))
+            .thenComparing(Chave::status, Comparator.nullsFirst(Comparator.<StatusLancamento>naturalOrder()));
+
+    private LancamentoRepository lancamentoRepository;
+
+    private JornalLancamentoService jornalService;
+
+    private ProjecaoColunar projecaoColunar;
+
+    private TransactionTemplate transactionTemplate;
+
+    public AgregacaoServiceImpl(LancamentoRepository lancamentoRepository, JornalLancamentoService jornalService,
+                                ProjecaoColunar projecaoColunar, PlatformTransactionManager transactionManager) {
+        this.lancamentoRepository = lancamentoRepository;
+        this.jornalService = jornalService;
+        this.projecaoColunar = projecaoColunar;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Com a leitura em memoria, pelas colunas em cache, mantidas pelos eventos do jornal. Sem ela pode
+     * haver escritas de outras instancias, que o cache nao veria: o banco agrupa pelas quatro dimensoes
+     * e aqui os grupos sao somados nas dimensoes pedidas, na mesma ordem das colunas.
+     */
+    @Override
+    public List<GrupoLancamentos> agregar(Long idUsuario, FiltroAgregacao filtro, Set<DimensaoLancamento> dimensoes) {
+        if (jornalService.emMemoria()) {
+            return projecaoColunar.obter(idUsuario, () -> carregar(idUsuario)).agregar(filtro, dimensoes);
+        }
+        List<TotalPeriodo> totais = lancamentoRepository.totalizarPorFiltro(idUsuario, filtro.ano(), filtro.mes(),
+                filtro.tipo(), filtro.status());
+        Map<Chave, GrupoLancamentos> grupos = new TreeMap<>(ORDEM);
+        for (TotalPeriodo total : totais) {
+            Chave chave = new Chave(
+                    dimensoes.contains(DimensaoLancamento.ANO) ? total.ano() : null,
+                    dimensoes.contains(DimensaoLancamento.MES) ? total.mes() : null,
+                    dimensoes.contains(DimensaoLancamento.TIPO) ? total.tipo() : null,
+                    dimensoes.contains(DimensaoLancamento.STATUS) ? total.status() : null);
+            grupos.merge(chave, new GrupoLancamentos(chave.ano(), chave.mes(), chave.tipo(), chave.status(), total.quantidade(), total.valor()),
+                    (atual, novo) -> new GrupoLancamentos(chave.ano(), chave.mes(), chave.tipo(), chave.status(),
+                            atual.quantidade() + novo.quantidade(), atual.valor().add(novo.valor())));
+        }
+        return List.copyOf(grupos.values());
+    }
+
+    private record Chave(Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status) {
+    }
+
+    private ColunasLancamentos carregar(Long idUsuario) {
+        // transacao de escrita de proposito: numa replica atrasada a carga perderia escritas cujos
+        // eventos ja foram entregues, e o cache ficaria sem elas
+        return transactionTemplate.execute(status -> {
+            ColunasLancamentos colunas = new ColunasLancamentos();
+            try (Stream<LancamentoEstado> estados = lancamentoRepository.streamEstadosPorUsuario(idUsuario)) {
+                estados.forEach(colunas::adicionar);
+            }
+            return colunas;
+        });
+    }
+}
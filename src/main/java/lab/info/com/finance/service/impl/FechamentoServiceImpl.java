@@ -0,0 +1,229 @@
+package lab.info.com.finance.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Fechamento;
+import lab.info.com.finance.model.entity.TotalFechamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.SaldoMensal;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.repository.FechamentoRepository;
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.model.repository.TotalFechamentoRepository;
+import lab.info.com.finance.model.valor.Dinheiro;
+import lab.info.com.finance.service.FechamentoService;
+import lab.info.com.finance.service.JornalLancamentoService;
+import lab.info.com.finance.service.projecao.ProjecaoTotaisMensais;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("finance.servico")
+public class FechamentoServiceImpl implements FechamentoService {
+
+    // limites das faixas de periodo quando o usuario ainda nao fechou nenhum mes, ou para "ate o fim"
+    private static final int ANO_INICIAL = 0;
+
+    private static final int ANO_FINAL = 9999;
+
+    // cinquenta anos por consulta
+    private static final int MAXIMO_MESES_EVOLUCAO = 600;
+
+    private FechamentoRepository fechamentoRepository;
+
+    private TotalFechamentoRepository totalFechamentoRepository;
+
+    private LancamentoRepository lancamentoRepository;
+
+    private JornalLancamentoService jornalService;
+
+    private ProjecaoTotaisMensais projecaoTotaisMensais;
+
+    public FechamentoServiceImpl(FechamentoRepository fechamentoRepository, TotalFechamentoRepository totalFechamentoRepository,
+                                 LancamentoRepository lancamentoRepository, JornalLancamentoService jornalService,
+                                 ProjecaoTotaisMensais projecaoTotaisMensais) {
+        this.fechamentoRepository = fechamentoRepository;
+        this.totalFechamentoRepository = totalFechamentoRepository;
+        this.lancamentoRepository = lancamentoRepository;
+        this.jornalService = jornalService;
+        this.projecaoTotaisMensais = projecaoTotaisMensais;
+    }
+
+    @Override
+    @Transactional
+    public Fechamento fechar(Long idUsuario, Integer ano, Integer mes) {
+        if(mes == null || mes < 1 || mes > 12){
+            throw new RegraNegocioException("Informe um Mês válido.");
+        }
+        if(ano == null || ano.toString().length() != 4){
+            throw new RegraNegocioException("Informe um Ano válido.");
+        }
+        if(!YearMonth.of(ano, mes).isBefore(YearMonth.now())){
+            throw new RegraNegocioException("Só é possível fechar meses já encerrados.");
+        }
+
+        fechamentoRepository.bloquearUsuarioParaFechamento(idUsuario);
+        Fechamento fechamento = fechamentoRepository.findById(idUsuario)
+                .orElseGet(() -> Fechamento.builder().idUsuario(idUsuario).ano(ANO_INICIAL).mes(0).build());
+        if(fechamento.getAno() > ano || (fechamento.getAno().equals(ano) && fechamento.getMes() >= mes)){
+            throw new RegraNegocioException("O período informado já está fechado.");
+        }
+        if(lancamentoRepository.contarPorStatusEntrePeriodos(idUsuario, StatusLancamento.PENDENTE,
+                fechamento.getAno(), fechamento.getMes(), ano, mes) > 0){
+            throw new RegraNegocioException("Existem lançamentos pendentes no período a fechar.");
+        }
+
+        List<TotalPeriodo> totais = lancamentoRepository.totalizarPeriodos(idUsuario, fechamento.getAno(), fechamento.getMes(), ano, mes);
+        totalFechamentoRepository.saveAll(totais.stream()
+                .map(total -> TotalFechamento.builder()
+                        .idUsuario(idUsuario)
+                        .ano(total.ano())
+                        .mes(total.mes())
+                        .tipo(total.tipo())
+                        .status(total.status())
+                        .quantidade(total.quantidade())
+                        .valor(total.valor())
+                        .build())
+                .toList());
+
+        fechamento.setAno(ano);
+        fechamento.setMes(mes);
+        fechamento.setDataFechamento(LocalDateTime.now());
+        return fechamentoRepository.save(fechamento);
+    }
+
+    @Override
+    @Transactional
+    public Optional<YearMonth> obterUltimoPeriodoFechado(Long idUsuario) {
+        fechamentoRepository.bloquearUsuarioParaEscrita(idUsuario);
+        return fechamentoRepository.findById(idUsuario)
+                .map(fechamento -> YearMonth.of(fechamento.getAno(), fechamento.getMes()));
+    }
+
+    @Override
+    @Transactional
+    public void verificarPeriodosAbertos(Collection<LancamentoEstado> estados) {
+        // ordenado por usuario para que os bloqueios sejam sempre tomados na mesma ordem
+        Map<Long, List<LancamentoEstado>> porUsuario = estados.stream()
+                .filter(Objects::nonNull)
+                .filter(estado -> estado.idUsuario() != null && estado.ano() != null && estado.mes() != null)
+                .collect(Collectors.groupingBy(LancamentoEstado::idUsuario, TreeMap::new, Collectors.toList()));
+        porUsuario.forEach((idUsuario, doUsuario) -> obterUltimoPeriodoFechado(idUsuario).ifPresent(fechado -> {
+            for (LancamentoEstado estado : doUsuario) {
+                if(estado.ano() < fechado.getYear()
+                        || (estado.ano() == fechado.getYear() && estado.mes() <= fechado.getMonthValue())){
+                    throw new RegraNegocioException("O período informado já está fechado.");
+                }
+            }
+        }));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal calcularSaldo(Long idUsuario) {
+        return fechamentoRepository.findById(idUsuario)
+                .map(fechamento -> totalFechamentoRepository.calcularSaldoPorUsuario(idUsuario)
+                        .add(lancamentoRepository.calcularSaldoPorUsuarioApos(idUsuario, fechamento.getAno(), fechamento.getMes())))
+                .orElseGet(() -> lancamentoRepository.calcularSaldoPorUsuario(idUsuario));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalPeriodo> obterTotaisMensais(Long idUsuario) {
+        if (jornalService.emMemoria()) {
+            return projecaoTotaisMensais.obterTotais(idUsuario);
+        }
+        Optional<Fechamento> fechamento = fechamentoRepository.findById(idUsuario);
+        List<TotalPeriodo> totais = new ArrayList<>(fechamento.isPresent() ? totalFechamentoRepository.obterTotais(idUsuario) : List.of());
+        totais.addAll(lancamentoRepository.totalizarPeriodos(idUsuario,
+                fechamento.map(Fechamento::getAno).orElse(ANO_INICIAL), fechamento.map(Fechamento::getMes).orElse(0),
+                ANO_FINAL, 12));
+        return totais;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SaldoMensal> obterEvolucaoSaldo(Long idUsuario, YearMonth inicio, YearMonth fim) {
+        if(inicio == null || fim == null || fim.isBefore(inicio)){
+            throw new RegraNegocioException("Informe um período válido.");
+        }
+        if(inicio.until(fim, ChronoUnit.MONTHS) >= MAXIMO_MESES_EVOLUCAO){
+            throw new RegraNegocioException("Informe um período de no máximo " + MAXIMO_MESES_EVOLUCAO + " meses.");
+        }
+
+        // o saldo de abertura sai de uma soma antes do inicio; so os meses do periodo vem mes a mes
+        long saldo;
+        List<TotalPeriodo> totais;
+        if (jornalService.emMemoria()) {
+            saldo = projecaoTotaisMensais.calcularSaldoAntes(idUsuario, inicio);
+            totais = projecaoTotaisMensais.obterTotais(idUsuario, inicio, fim);
+        } else {
+            YearMonth anterior = inicio.minusMonths(1);
+            Optional<YearMonth> fechado = fechamentoRepository.findById(idUsuario)
+                    .map(fechamento -> YearMonth.of(fechamento.getAno(), fechamento.getMes()));
+            BigDecimal abertura = BigDecimal.ZERO;
+            totais = new ArrayList<>();
+            if (fechado.isPresent()) {
+                YearMonth ateFechado = fechado.get().isBefore(anterior) ? fechado.get() : anterior;
+                abertura = totalFechamentoRepository.calcularSaldoPorUsuarioAte(idUsuario, ateFechado.getYear(), ateFechado.getMonthValue());
+                if (!fechado.get().isBefore(inicio)) {
+                    YearMonth ate = fechado.get().isBefore(fim) ? fechado.get() : fim;
+                    totais.addAll(totalFechamentoRepository.obterTotaisEntrePeriodos(idUsuario,
+                            anterior.getYear(), anterior.getMonthValue(), ate.getYear(), ate.getMonthValue()));
+                }
+            }
+            // meses abertos: depois do ultimo fechado, separados em antes e dentro do periodo
+            int anoAberto = fechado.map(YearMonth::getYear).orElse(ANO_INICIAL);
+            int mesAberto = fechado.map(YearMonth::getMonthValue).orElse(0);
+            if (fechado.isEmpty() || fechado.get().isBefore(anterior)) {
+                abertura = abertura.add(lancamentoRepository.calcularSaldoEntrePeriodos(idUsuario, anoAberto, mesAberto,
+                        anterior.getYear(), anterior.getMonthValue()));
+                anoAberto = anterior.getYear();
+                mesAberto = anterior.getMonthValue();
+            }
+            if (fechado.isEmpty() || fechado.get().isBefore(fim)) {
+                totais.addAll(lancamentoRepository.totalizarPeriodos(idUsuario, anoAberto, mesAberto, fim.getYear(), fim.getMonthValue()));
+            }
+            saldo = Dinheiro.centavos(abertura);
+        }
+
+        List<SaldoMensal> evolucao = new ArrayList<>();
+        long movimento = 0;
+        YearMonth proximo = inicio;
+        for (TotalPeriodo total : totais) {
+            if (total.status() != StatusLancamento.EFETIVADO) {
+                continue;
+            }
+            YearMonth periodo = YearMonth.of(total.ano(), total.mes());
+            // os totais vem em ordem de mes: os meses antes deste ja estao completos
+            for (; proximo.isBefore(periodo); proximo = proximo.plusMonths(1)) {
+                evolucao.add(new SaldoMensal(proximo.getYear(), proximo.getMonthValue(), Dinheiro.decimal(movimento), Dinheiro.decimal(saldo)));
+                movimento = 0;
+            }
+            long centavos = Dinheiro.centavos(total.valor());
+            long efeito = total.tipo() == TipoLancamento.RECEITA ? centavos : Dinheiro.negar(centavos);
+            saldo = Dinheiro.somar(saldo, efeito);
+            movimento = Dinheiro.somar(movimento, efeito);
+        }
+        for (; !proximo.isAfter(fim); proximo = proximo.plusMonths(1)) {
+            evolucao.add(new SaldoMensal(proximo.getYear(), proximo.getMonthValue(), Dinheiro.decimal(movimento), Dinheiro.decimal(saldo)));
+            movimento = 0;
+        }
+        return evolucao;
+    }
+}
@@ -0,0 +1,195 @@
+package lab.info.com.finance.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lab.info.com.finance.exceptions.CapacidadeExcedidaException;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.service.GravacaoAgrupadaService;
+import lab.info.com.finance.service.LancamentoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravacao agrupada (group commit) dos lancamentos criados pela API: em vez de um commit por
+ * requisicao, uma unica thread grava o que estiver na fila em lotes, fechando o lote quando ele
+ * enche ou quando o primeiro da fila ja esperou o tempo maximo. Cada lote e uma chamada a
+ * {@link LancamentoService#importar}, que ja grava em lotes JDBC, confere os meses fechados com o
+ * usuario bloqueado e relata por linha os que nao entraram, sem derrubar os demais.
+ */
+@Service
+@ConditionalOnProperty(name = "finance.lancamentos.gravacao-agrupada.habilitada", havingValue = "true")
+public class GravacaoAgrupadaServiceImpl implements GravacaoAgrupadaService, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GravacaoAgrupadaServiceImpl.class);
+
+    private LancamentoService lancamentoService;
+
+    private BlockingQueue<Pendente> fila;
+
+    private int tamanhoLote;
+
+    private Duration esperaMaxima;
+
+    private DistributionSummary lancamentosPorCommit;
+
+    private Counter rejeitados;
+
+    private volatile boolean ativo;
+
+    private Thread gravador;
+
+    public GravacaoAgrupadaServiceImpl(LancamentoService lancamentoService, MeterRegistry registry,
+                                       @Value("${finance.lancamentos.gravacao-agrupada.capacidade:5000}") int capacidade,
+                                       @Value("${finance.lancamentos.gravacao-agrupada.tamanho-lote:200}") int tamanhoLote,
+                                       @Value("${finance.lancamentos.gravacao-agrupada.espera-maxima:10ms}") Duration esperaMaxima) {
+        this.lancamentoService = lancamentoService;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaxima = esperaMaxima;
+        Gauge.builder("finance.gravacao.fila", fila, BlockingQueue::size)
+                .description("Lancamentos validados aguardando o gravador")
+                .register(registry);
+        this.lancamentosPorCommit = DistributionSummary.builder("finance.gravacao.lote")
+                .description("Lancamentos gravados por commit do gravador")
+                .register(registry);
+        this.rejeitados = Counter.builder("finance.gravacao.rejeitados")
+                .description("Lancamentos recusados com a fila cheia")
+                .register(registry);
+    }
+
+    private record Pendente(Lancamento lancamento, CompletableFuture<Lancamento> gravado) {
+    }
+
+    /**
+     * Aqui so os campos sao validados, sem ir ao banco: o mes fechado e conferido pelo lote, com o
+     * usuario bloqueado, e chega como falha do futuro.
+     */
+    @Override
+    public CompletableFuture<Lancamento> enfileirar(Lancamento lancamento) {
+        lancamentoService.validarCampos(lancamento);
+        Pendente pendente = new Pendente(lancamento, new CompletableFuture<>());
+        // parado entre a checagem e o offer: se o gravador ja saiu, o pendente ficaria na fila
+        // para sempre; se ele ainda o pegou, o remove falha e o commit completa o futuro
+        if (!ativo || !fila.offer(pendente) || !ativo && fila.remove(pendente)) {
+            rejeitados.increment();
+            throw new CapacidadeExcedidaException("Muitos lançamentos aguardando gravação. Tente novamente em instantes.");
+        }
+        return pendente.gravado();
+    }
+
+    private void executar() {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        // parado, ainda esvazia a fila: quem ja recebeu o aceite espera o commit
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Pendente primeiro = fila.poll(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                long prazo = System.nanoTime() + esperaMaxima.toNanos();
+                while (lote.size() < tamanhoLote) {
+                    fila.drainTo(lote, tamanhoLote - lote.size());
+                    long restante = prazo - System.nanoTime();
+                    if (lote.size() >= tamanhoLote || restante <= 0) {
+                        break;
+                    }
+                    Pendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+                gravar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lote.forEach(pendente -> pendente.gravado().completeExceptionally(e));
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravar(List<Pendente> lote) {
+        List<Lancamento> lancamentos = lote.stream().map(Pendente::lancamento).toList();
+        ResultadoImportacao resultado;
+        try {
+            resultado = lancamentoService.importar(lancamentos);
+        } catch (RuntimeException e) {
+            log.warn("Lote de {} lancamentos nao gravado: {}", lote.size(), e.getMessage());
+            lote.forEach(pendente -> pendente.gravado().completeExceptionally(e));
+            return;
+        }
+        lancamentosPorCommit.record(resultado.importados());
+
+        Map<Integer, String> erros = new HashMap<>();
+        resultado.erros().forEach(erro -> erros.put(erro.linha(), erro.mensagem()));
+        for (int indice = 0; indice < lote.size(); indice++) {
+            Pendente pendente = lote.get(indice);
+            String erro = erros.get(indice + 1);
+            if (erro == null) {
+                pendente.gravado().complete(pendente.lancamento());
+            } else {
+                pendente.gravado().completeExceptionally(new RegraNegocioException(erro));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        ativo = true;
+        gravador = new Thread(this::executar, "finance-gravador");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    @Override
+    public void stop() {
+        ativo = false;
+        try {
+            gravador.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // o que o gravador nao chegou a gravar no prazo falha em vez de ficar sem resposta
+        List<Pendente> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            log.warn("{} lancamentos nao gravados no encerramento", restantes.size());
+            CapacidadeExcedidaException erro = new CapacidadeExcedidaException("Aplicação em encerramento. Tente novamente em instantes.");
+            restantes.forEach(pendente -> pendente.gravado().completeExceptionally(erro));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ativo;
+    }
+
+    /**
+     * Para depois do servidor web, que ao encerrar ainda espera as requisicoes aguardando um lote.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
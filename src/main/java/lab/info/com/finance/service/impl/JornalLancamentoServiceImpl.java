@@ -0,0 +1,140 @@
+package lab.info.com.finance.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.TipoEventoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.repository.EventoLancamentoRepository;
+import lab.info.com.finance.service.JornalLancamentoService;
+import lab.info.com.finance.service.projecao.ProjecaoLancamentos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@Timed("finance.servico")
+public class JornalLancamentoServiceImpl implements JornalLancamentoService, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(JornalLancamentoServiceImpl.class);
+
+    private EventoLancamentoRepository eventoRepository;
+
+    private List<ProjecaoLancamentos> projecoes;
+
+    private TransactionTemplate transactionTemplate;
+
+    private boolean leituraEmMemoria;
+
+    private volatile boolean pronto;
+
+    public JornalLancamentoServiceImpl(EventoLancamentoRepository eventoRepository, List<ProjecaoLancamentos> projecoes,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${finance.jornal.leitura-em-memoria:false}") boolean leituraEmMemoria) {
+        this.eventoRepository = eventoRepository;
+        this.projecoes = projecoes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leituraEmMemoria = leituraEmMemoria;
+    }
+
+    /**
+     * Replay antes do servidor web subir: nenhuma escrita desta instancia corre ao mesmo tempo. Sem a
+     * leitura em memoria as projecoes nao sao usadas, entao nem o replay nem os eventos sao aplicados.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (leituraEmMemoria) {
+            reconstruir();
+        }
+    }
+
+    @Override
+    @Transactional
+    public void registrar(TipoEventoLancamento tipoEvento, List<LancamentoEstado> anteriores, List<LancamentoEstado> atuais) {
+        List<LancamentoEstado> desfeitos = new ArrayList<>(anteriores);
+        List<LancamentoEstado> aplicados = new ArrayList<>(atuais.size());
+        for (LancamentoEstado atual : atuais) {
+            // um estado que nao mudou desfaria e refaria o mesmo evento
+            if (!desfeitos.remove(atual)) {
+                aplicados.add(atual);
+            }
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<EventoLancamento> eventos = new ArrayList<>(desfeitos.size() + aplicados.size());
+        desfeitos.stream().filter(JornalLancamentoServiceImpl::temUsuario)
+                .forEach(estado -> eventos.add(EventoLancamento.de(tipoEvento, estado, -1, agora)));
+        aplicados.stream().filter(JornalLancamentoServiceImpl::temUsuario)
+                .forEach(estado -> eventos.add(EventoLancamento.de(tipoEvento, estado, 1, agora)));
+        if (eventos.isEmpty()) {
+            return;
+        }
+        eventoRepository.saveAll(eventos);
+        if (emMemoria()) {
+            pendentes().addAll(eventos);
+        }
+    }
+
+    private static boolean temUsuario(LancamentoEstado estado) {
+        return estado != null && estado.id() != null && estado.idUsuario() != null;
+    }
+
+    /**
+     * Eventos gravados na transacao corrente, entregues as projecoes so se ela for confirmada.
+     */
+    @SuppressWarnings("unchecked")
+    private List<EventoLancamento> pendentes() {
+        List<EventoLancamento> pendentes = (List<EventoLancamento>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            List<EventoLancamento> novos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(JornalLancamentoServiceImpl.this);
+                    if (status == STATUS_COMMITTED) {
+                        novos.forEach(evento -> projecoes.forEach(projecao -> projecao.aplicar(evento)));
+                    }
+                }
+            });
+            pendentes = novos;
+        }
+        return pendentes;
+    }
+
+    /**
+     * Reaplica o jornal inteiro nas projecoes. So roda na subida: com escritas concorrentes, os eventos
+     * confirmados durante o replay nao seriam aplicados (as projecoes ainda nao estao prontas).
+     */
+    private void reconstruir() {
+        long inicio = System.nanoTime();
+        // transacao de escrita de proposito: somente leitura iria para uma replica, possivelmente atrasada
+        long[] eventos = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<EventoLancamento> jornal = eventoRepository.streamTodos()) {
+                jornal.forEach(evento -> {
+                    projecoes.forEach(projecao -> projecao.aplicar(evento));
+                    eventos[0]++;
+                });
+            }
+        });
+        pronto = true;
+        log.info("Jornal de lancamentos reaplicado: {} eventos em {} ms", eventos[0], (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @Override
+    public boolean emMemoria() {
+        return leituraEmMemoria && pronto;
+    }
+}
@@ -1,11 +1,32 @@
 package lab.info.com.finance.service.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lab.info.com.finance.exceptions.LimiteExcedidoException;
 import lab.info.com.finance.exceptions.RegraNegocioException;
 import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.SaldoUsuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
-import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoEventoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+import lab.info.com.finance.model.projection.ContagemStatus;
+import lab.info.com.finance.model.projection.CursorLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.Pagina;
+import lab.info.com.finance.model.projection.ParcelaGrupo;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.model.projection.VersaoUsuario;
 import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.model.valor.Dinheiro;
+import lab.info.com.finance.service.FechamentoService;
+import lab.info.com.finance.service.JornalLancamentoService;
 import lab.info.com.finance.service.LancamentoService;
+import lab.info.com.finance.service.ParticaoLancamentoService;
+import lab.info.com.finance.service.SaldoService;
+import lab.info.com.finance.service.projecao.ProjecaoContagemPorStatus;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.stereotype.Service;
@@ -13,18 +34,77 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
+@Timed("finance.servico")
 public class LancamentoServiceImpl implements LancamentoService {
 
+    // ids por comando em "in (...)": fica longe do limite de parametros do PostgreSQL
+    private static final int IDS_POR_COMANDO = 1000;
+
+    // trinta anos de parcelas mensais
+    private static final int MAXIMO_PARCELAS = 360;
+
     private LancamentoRepository lancamentoRepository;
 
-    public LancamentoServiceImpl(LancamentoRepository lancamentoRepository) {
+    private SaldoService saldoService;
+
+    private FechamentoService fechamentoService;
+
+    private JornalLancamentoService jornalService;
+
+    private ProjecaoContagemPorStatus projecaoContagem;
+
+    private ParticaoLancamentoService particaoService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private int tamanhoPaginaPadrao;
+
+    private int tamanhoPaginaMaximo;
+
+    private int tamanhoLote;
+
+    private int maximoLinhasImportacao;
+
+    public LancamentoServiceImpl(LancamentoRepository lancamentoRepository, SaldoService saldoService,
+                                 FechamentoService fechamentoService, JornalLancamentoService jornalService,
+                                 ProjecaoContagemPorStatus projecaoContagem, ParticaoLancamentoService particaoService,
+                                 @Value("${finance.lancamentos.pagina.tamanho-padrao:50}") int tamanhoPaginaPadrao,
+                                 @Value("${finance.lancamentos.pagina.tamanho-maximo:500}") int tamanhoPaginaMaximo,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int tamanhoLote,
+                                 @Value("${finance.lancamentos.importacao.maximo-linhas:10000}") int maximoLinhasImportacao) {
         this.lancamentoRepository = lancamentoRepository;
+        this.saldoService = saldoService;
+        this.fechamentoService = fechamentoService;
+        this.jornalService = jornalService;
+        this.projecaoContagem = projecaoContagem;
+        this.particaoService = particaoService;
+        this.tamanhoPaginaPadrao = tamanhoPaginaPadrao;
+        this.tamanhoPaginaMaximo = tamanhoPaginaMaximo;
+        this.tamanhoLote = tamanhoLote;
+        this.maximoLinhasImportacao = maximoLinhasImportacao;
     }
 
     @Override
@@ -34,7 +114,199 @@ public class LancamentoServiceImpl implements LancamentoService {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
         lancamento.setDataCadastro( LocalDate.now());
-        return lancamentoRepository.save(lancamento);
+        saldoService.registrar(null, LancamentoEstado.de(lancamento));
+        Lancamento salvo = lancamentoRepository.save(lancamento);
+        lancamentoRepository.flush();
+        jornalService.registrar(TipoEventoLancamento.CRIADO, List.of(), List.of(LancamentoEstado.de(salvo)));
+        return salvo;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoImportacao importar(List<Lancamento> lancamentos) {
+        if (lancamentos.size() > maximoLinhasImportacao) {
+            throw new LimiteExcedidoException("A importação aceita no máximo " + maximoLinhasImportacao + " lançamentos por vez.");
+        }
+
+        // os campos nao dependem de estado compartilhado, entao as linhas sao verificadas em paralelo
+        List<ResultadoImportacao.Erro> erros = new ArrayList<>(IntStream.range(0, lancamentos.size())
+                .parallel()
+                .mapToObj(indice -> validarLinha(indice, lancamentos.get(indice)))
+                .filter(Objects::nonNull)
+                .toList());
+
+        boolean[] invalidas = new boolean[lancamentos.size()];
+        erros.forEach(erro -> invalidas[erro.linha() - 1] = true);
+
+        // ja o periodo fechado e consultado no banco, uma vez por usuario
+        Map<Long, Optional<YearMonth>> fechados = new HashMap<>();
+        for (int indice = 0; indice < lancamentos.size(); indice++) {
+            Lancamento lancamento = lancamentos.get(indice);
+            if (!invalidas[indice] && fechados.computeIfAbsent(lancamento.getUsuario().getId(), fechamentoService::obterUltimoPeriodoFechado)
+                    .filter(fechado -> !YearMonth.of(lancamento.getAno(), lancamento.getMes()).isAfter(fechado))
+                    .isPresent()) {
+                invalidas[indice] = true;
+                erros.add(new ResultadoImportacao.Erro(indice + 1, "O período informado já está fechado."));
+            }
+        }
+        erros.sort(Comparator.comparingInt(ResultadoImportacao.Erro::linha));
+
+        List<Lancamento> validos = IntStream.range(0, lancamentos.size())
+                .filter(indice -> !invalidas[indice])
+                .mapToObj(lancamentos::get)
+                .toList();
+        inserir(validos);
+
+        return new ResultadoImportacao(lancamentos.size(), validos.size(), erros);
+    }
+
+    @Override
+    @Transactional
+    public List<Lancamento> salvarRecorrencia(Lancamento modelo, TipoRecorrencia recorrencia, Integer parcelas, YearMonth ate) {
+        validarCampos(modelo);
+        if(recorrencia == null){
+            throw new RegraNegocioException("Informe o tipo de recorrência.");
+        }
+        YearMonth inicio = YearMonth.of(modelo.getAno(), modelo.getMes());
+        if((parcelas == null) == (ate == null)){
+            throw new RegraNegocioException("Informe a quantidade de parcelas ou o mês final.");
+        }
+        long quantidade = parcelas != null ? parcelas : inicio.until(ate, ChronoUnit.MONTHS) + 1;
+        if(quantidade < 1 || quantidade > MAXIMO_PARCELAS){
+            throw new RegraNegocioException("Informe entre 1 e " + MAXIMO_PARCELAS + " parcelas.");
+        }
+
+        long centavos = Dinheiro.centavos(modelo.getValor());
+        long[] valores;
+        if(recorrencia == TipoRecorrencia.PARCELADA){
+            valores = Dinheiro.dividir(centavos, (int) quantidade);
+        }else{
+            valores = new long[(int) quantidade];
+            Arrays.fill(valores, centavos);
+        }
+        // a divisao deixa os menores valores no fim
+        if(valores[valores.length - 1] == 0){
+            throw new RegraNegocioException("Informe um Valor de ao menos um centavo por parcela.");
+        }
+
+        Long idGrupo = lancamentoRepository.proximoGrupo();
+        List<Lancamento> lancamentos = new ArrayList<>(valores.length);
+        for (int indice = 0; indice < valores.length; indice++) {
+            YearMonth periodo = inicio.plusMonths(indice);
+            lancamentos.add(Lancamento.builder()
+                    .descricao(modelo.getDescricao())
+                    .ano(periodo.getYear())
+                    .mes(periodo.getMonthValue())
+                    .usuario(modelo.getUsuario())
+                    .tipo(modelo.getTipo())
+                    .valor(Dinheiro.decimal(valores[indice]))
+                    .idGrupo(idGrupo)
+                    .parcela(indice + 1)
+                    .recorrencia(recorrencia)
+                    .build());
+        }
+        // a primeira parcela basta para o mes fechado; a ultima, para um ano que passe de quatro digitos
+        validarCampos(lancamentos.get(lancamentos.size() - 1));
+        fechamentoService.verificarPeriodosAbertos(List.of(LancamentoEstado.de(lancamentos.get(0))));
+        inserir(lancamentos);
+        return lancamentos;
+    }
+
+    /**
+     * Grava os lancamentos em lotes JDBC, com os eventos de cada lote no mesmo flush. Entram pendentes,
+     * como em salvar, e por isso nao alteram o saldo: so avancam a versao do usuario.
+     */
+    private void inserir(List<Lancamento> lancamentos) {
+        LocalDate hoje = LocalDate.now();
+        List<LancamentoEstado> lote = new ArrayList<>(tamanhoLote);
+        for (Lancamento lancamento : lancamentos) {
+            lancamento.setId(null);
+            lancamento.setStatus(StatusLancamento.PENDENTE);
+            lancamento.setDataCadastro(hoje);
+            entityManager.persist(lancamento);
+            lote.add(LancamentoEstado.de(lancamento));
+            if (lote.size() == tamanhoLote) {
+                saldoService.registrar(List.of(), lote);
+                jornalService.registrar(TipoEventoLancamento.CRIADO, List.of(), lote);
+                lote.clear();
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        saldoService.registrar(List.of(), lote);
+        jornalService.registrar(TipoEventoLancamento.CRIADO, List.of(), lote);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public int atualizarGrupo(Long idGrupo, String descricao, BigDecimal valor) {
+        if(descricao == null || descricao.trim().equals("")){
+            throw new RegraNegocioException("Informe uma Descrição válida.");
+        }
+        validarValor(valor);
+        // pendentes nunca estao em mes fechado: o fechamento recusa meses com pendentes
+        List<ParcelaGrupo> parcelas = lancamentoRepository.obterParcelasPorGrupo(idGrupo, StatusLancamento.PENDENTE);
+        if(parcelas.isEmpty()){
+            return 0;
+        }
+        List<LancamentoEstado> pendentes = parcelas.stream().map(ParcelaGrupo::estado).toList();
+        LocalDate hoje = LocalDate.now();
+        if(parcelas.get(0).recorrencia() != TipoRecorrencia.PARCELADA){
+            List<LancamentoEstado> novos = pendentes.stream().map(estado -> estado.comValor(valor)).toList();
+            saldoService.registrar(pendentes, novos);
+            int atualizados = lancamentoRepository.atualizarPorGrupo(idGrupo, StatusLancamento.PENDENTE, descricao, valor, hoje);
+            verificarAtualizados(atualizados, pendentes.size());
+            jornalService.registrar(TipoEventoLancamento.ATUALIZADO, pendentes, novos);
+            return atualizados;
+        }
+
+        // parcelada: o valor e o novo total das pendentes, dividido como na criacao; os valores
+        // diferem em no maximo um centavo, entao sao no maximo dois updates
+        long[] valores = Dinheiro.dividir(Dinheiro.centavos(valor), parcelas.size());
+        if(valores[valores.length - 1] == 0){
+            throw new RegraNegocioException("Informe um Valor de ao menos um centavo por parcela.");
+        }
+        List<LancamentoEstado> novos = new ArrayList<>(parcelas.size());
+        Map<Long, List<Long>> idsPorValor = new LinkedHashMap<>();
+        for (int indice = 0; indice < parcelas.size(); indice++) {
+            novos.add(pendentes.get(indice).comValor(Dinheiro.decimal(valores[indice])));
+            idsPorValor.computeIfAbsent(valores[indice], centavos -> new ArrayList<>()).add(parcelas.get(indice).id());
+        }
+        saldoService.registrar(pendentes, novos);
+        int atualizados = 0;
+        for (Map.Entry<Long, List<Long>> mesmoValor : idsPorValor.entrySet()) {
+            atualizados += lancamentoRepository.atualizarPorIds(mesmoValor.getValue(), StatusLancamento.PENDENTE, descricao,
+                    Dinheiro.decimal(mesmoValor.getKey()), hoje);
+        }
+        verificarAtualizados(atualizados, pendentes.size());
+        jornalService.registrar(TipoEventoLancamento.ATUALIZADO, pendentes, novos);
+        return atualizados;
+    }
+
+    @Override
+    @Transactional
+    public int cancelarGrupo(Long idGrupo) {
+        List<LancamentoEstado> pendentes = lancamentoRepository.obterEstadosPorGrupo(idGrupo, StatusLancamento.PENDENTE);
+        if(pendentes.isEmpty()){
+            return 0;
+        }
+        List<LancamentoEstado> novos = pendentes.stream().map(estado -> estado.comStatus(StatusLancamento.CANCELADO)).toList();
+        saldoService.registrar(pendentes, novos);
+        int atualizados = lancamentoRepository.atualizarStatusPorGrupo(idGrupo, StatusLancamento.PENDENTE, StatusLancamento.CANCELADO);
+        verificarAtualizados(atualizados, pendentes.size());
+        jornalService.registrar(TipoEventoLancamento.STATUS_ALTERADO, pendentes, novos);
+        return atualizados;
+    }
+
+    private ResultadoImportacao.Erro validarLinha(int indice, Lancamento lancamento) {
+        try {
+            validarCampos(lancamento);
+            return null;
+        } catch (RegraNegocioException e) {
+            return new ResultadoImportacao.Erro(indice + 1, e.getMessage());
+        }
     }
 
     @Override
@@ -44,32 +316,197 @@ public class LancamentoServiceImpl implements LancamentoService {
         validar(lancamento);
         lancamento.setDataCadastro( LocalDate.now());
         Objects.requireNonNull(lancamento.getId());
-        return lancamentoRepository.save(lancamento);
+        LancamentoEstado anterior = obterEstadoPersistido(lancamento.getId());
+        LancamentoEstado atual = LancamentoEstado.de(lancamento);
+        if(anterior != null && !mesmoPeriodo(anterior, atual)){
+            // validar ja conferiu o periodo novo; o de origem tambem nao pode estar fechado
+            fechamentoService.verificarPeriodosAbertos(List.of(anterior));
+        }
+        saldoService.registrar(anterior, atual);
+        Lancamento salvo = lancamentoRepository.save(lancamento);
+        lancamentoRepository.flush();
+        jornalService.registrar(TipoEventoLancamento.ATUALIZADO, Collections.singletonList(anterior), List.of(atual));
+        return salvo;
     }
 
     @Override
     @Transactional
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
+        LancamentoEstado anterior = obterEstadoPersistido(lancamento.getId());
+        fechamentoService.verificarPeriodosAbertos(Collections.singletonList(anterior));
+        saldoService.registrar(anterior, null);
         lancamentoRepository.delete(lancamento);
+        lancamentoRepository.flush();
+        jornalService.registrar(TipoEventoLancamento.REMOVIDO, Collections.singletonList(anterior), List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LancamentoProjecao> buscar(Lancamento lancamentoFiltro) {
+        Example<Lancamento> example = Example.of(lancamentoFiltro, ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+
+        return lancamentoRepository.buscarProjecoes(example);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example example = Example.of(lancamentoFiltro, ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
+    public Pagina<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, String cursor, Integer tamanho) {
+        int limite = tamanhoDaPagina(tamanho);
+        CursorLancamento posicao = cursor == null ? null : CursorLancamento.decodificar(cursor);
+        Example<Lancamento> example = Example.of(lancamentoFiltro, ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
 
-        return lancamentoRepository.findAll(example);
+        // busca um registro a mais apenas para saber se existe proxima pagina
+        List<LancamentoProjecao> lancamentos = lancamentoRepository.buscarPagina(example, posicao, limite + 1);
+        if(lancamentos.size() <= limite){
+            return new Pagina<>(lancamentos, null);
+        }
+        List<LancamentoProjecao> itens = lancamentos.subList(0, limite);
+        return new Pagina<>(itens, CursorLancamento.depoisDe(itens.get(limite - 1)).codificar());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<LancamentoProjecao> buscarPorTexto(Long idUsuario, String texto, Integer limite) {
+        if(texto == null || texto.isBlank()){
+            throw new RegraNegocioException("Informe o texto da busca.");
+        }
+        return lancamentoRepository.buscarPorTexto(idUsuario, texto.trim(), tamanhoDaPagina(limite));
+    }
+
+    private int tamanhoDaPagina(Integer tamanho) {
+        int limite = tamanho == null ? tamanhoPaginaPadrao : tamanho;
+        if(limite < 1 || limite > tamanhoPaginaMaximo){
+            throw new RegraNegocioException("Informe um tamanho de página entre 1 e " + tamanhoPaginaMaximo + ".");
+        }
+        return limite;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor) {
+        try (Stream<LancamentoProjecao> lancamentos = lancamentoRepository.streamPorUsuario(idUsuario)) {
+            lancamentos.forEach(consumidor);
+        }
+    }
+
+    @Override
+    @Transactional
     public Lancamento atualizarStatus(Lancamento lancamento, StatusLancamento status) {
         lancamento.setStatus(status);
        return atualizar(lancamento);
     }
 
+    @Override
+    @Transactional
+    public LancamentoProjecao atualizarStatus(Long id, StatusLancamento status) {
+        LancamentoEstado anterior = lancamentoRepository.obterEstado(id)
+                .orElseThrow(() -> new RegraNegocioException("Lancamento não encontrado na base de dados"));
+        alterarStatus(List.of(anterior), status);
+        return lancamentoRepository.obterProjecao(id).orElseThrow();
+    }
+
+    @Override
+    @Transactional
+    public int atualizarStatus(Collection<Long> ids, StatusLancamento status) {
+        List<Long> distintos = List.copyOf(new LinkedHashSet<>(ids));
+        List<LancamentoEstado> anteriores = new ArrayList<>(distintos.size());
+        for (List<Long> lote : lotes(distintos)) {
+            anteriores.addAll(lancamentoRepository.obterEstados(lote));
+        }
+        if(anteriores.size() != distintos.size()){
+            throw new RegraNegocioException("Um ou mais lançamentos não foram encontrados na base de dados");
+        }
+        return alterarStatus(anteriores, status);
+    }
+
+    @Override
+    @Transactional
+    public int atualizarStatusDosPendentes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status) {
+        validarStatus(status);
+        List<LancamentoEstado> pendentes = lancamentoRepository.obterEstadosPorPeriodo(idUsuario, ano, mes, StatusLancamento.PENDENTE);
+        if(pendentes.isEmpty() || status == StatusLancamento.PENDENTE){
+            return 0;
+        }
+        fechamentoService.verificarPeriodosAbertos(pendentes.subList(0, 1));
+        List<LancamentoEstado> novos = pendentes.stream().map(estado -> estado.comStatus(status)).toList();
+        saldoService.registrar(pendentes, novos);
+        int atualizados = lancamentoRepository.atualizarStatusPorPeriodo(idUsuario, ano, mes, StatusLancamento.PENDENTE, status);
+        verificarAtualizados(atualizados, pendentes.size());
+        jornalService.registrar(TipoEventoLancamento.STATUS_ALTERADO, pendentes, novos);
+        return atualizados;
+    }
+
+    private int alterarStatus(List<LancamentoEstado> anteriores, StatusLancamento status) {
+        validarStatus(status);
+        List<LancamentoEstado> alterados = anteriores.stream().filter(estado -> estado.status() != status).toList();
+        if(alterados.isEmpty()){
+            return 0;
+        }
+        fechamentoService.verificarPeriodosAbertos(alterados);
+        List<LancamentoEstado> novos = alterados.stream().map(estado -> estado.comStatus(status)).toList();
+        saldoService.registrar(alterados, novos);
+
+        // o update exige o status lido acima, entao uma linha alterada por outra transacao nao casa
+        Map<StatusLancamento, List<Long>> idsPorStatus = alterados.stream()
+                .collect(Collectors.groupingBy(LancamentoEstado::status, () -> new EnumMap<>(StatusLancamento.class),
+                        Collectors.mapping(LancamentoEstado::id, Collectors.toList())));
+        int atualizados = 0;
+        for (Map.Entry<StatusLancamento, List<Long>> grupo : idsPorStatus.entrySet()) {
+            for (List<Long> lote : lotes(grupo.getValue())) {
+                atualizados += lancamentoRepository.atualizarStatus(lote, grupo.getKey(), status);
+            }
+        }
+        verificarAtualizados(atualizados, alterados.size());
+        jornalService.registrar(TipoEventoLancamento.STATUS_ALTERADO, alterados, novos);
+        return atualizados;
+    }
+
+    private void validarStatus(StatusLancamento status) {
+        if(status == null){
+            throw new RegraNegocioException("Status inválido");
+        }
+    }
+
+    private void verificarAtualizados(int atualizados, int esperados) {
+        if(atualizados != esperados){
+            // a excecao desfaz tambem o ajuste de saldo ja registrado nesta transacao
+            throw new RegraNegocioException("Os lançamentos foram alterados por outra operação. Tente novamente.");
+        }
+    }
+
+    private static List<List<Long>> lotes(List<Long> ids) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += IDS_POR_COMANDO) {
+            lotes.add(ids.subList(inicio, Math.min(inicio + IDS_POR_COMANDO, ids.size())));
+        }
+        return lotes;
+    }
+
+    private static boolean mesmoPeriodo(LancamentoEstado anterior, LancamentoEstado atual) {
+        return Objects.equals(anterior.idUsuario(), atual.idUsuario())
+                && Objects.equals(anterior.ano(), atual.ano())
+                && Objects.equals(anterior.mes(), atual.mes());
+    }
+
     @Override
     public void validar(Lancamento lancamento) {
+        validarCampos(lancamento);
+        fechamentoService.verificarPeriodosAbertos(List.of(LancamentoEstado.de(lancamento)));
+    }
+
+    private void validarValor(BigDecimal valor) {
+        if(valor == null || valor.compareTo(BigDecimal.ZERO) < 1){
+            throw new RegraNegocioException("Informe um Valor válido.");
+        }
+
+        if(!Dinheiro.representavel(valor)){
+            throw new RegraNegocioException("Informe um Valor com no máximo duas casas decimais.");
+        }
+    }
+
+    @Override
+    public void validarCampos(Lancamento lancamento) {
         if(lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")){
             throw new RegraNegocioException("Informe uma Descrição válida.");
         }
@@ -82,13 +519,15 @@ public class LancamentoServiceImpl implements LancamentoService {
             throw new RegraNegocioException("Informe um Ano válido.");
         }
 
+        if(!particaoService.aceitaAno(lancamento.getAno())){
+            throw new RegraNegocioException("Não é possível registrar lançamentos em " + lancamento.getAno() + ".");
+        }
+
         if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null){
             throw new RegraNegocioException("Informe um Usuário.");
         }
 
-        if(lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1){
-            throw new RegraNegocioException("Informe um Valor válido.");
-        }
+        validarValor(lancamento.getValor());
 
         if(lancamento.getTipo() == null){
             throw new RegraNegocioException("Informe um tipo de Lançamento.");
@@ -102,19 +541,52 @@ public class LancamentoServiceImpl implements LancamentoService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    public Optional<LancamentoProjecao> obterProjecaoPorId(Long id) {
+        return lancamentoRepository.obterProjecao(id);
+    }
+
+    @Override
     public BigDecimal obterSaldoPorUsuario(Long id) {
-        BigDecimal receitas = lancamentoRepository.obterSaldoPorUsuario(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-        BigDecimal despesas = lancamentoRepository.obterSaldoPorUsuario(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+        return saldoService.obterSaldo(id);
+    }
 
-        if(receitas == null){
-            receitas = BigDecimal.ZERO;
+    @Override
+    public Map<StatusLancamento, Long> contarPorStatus(Long idUsuario) {
+        if (jornalService.emMemoria()) {
+            return projecaoContagem.obterContagem(idUsuario);
         }
+        return lancamentoRepository.contarPorStatus(idUsuario).stream()
+                .collect(Collectors.toMap(ContagemStatus::status, ContagemStatus::quantidade, Long::sum,
+                        () -> new EnumMap<>(StatusLancamento.class)));
+    }
 
-        if(despesas == null){
-            despesas = BigDecimal.ZERO;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal recalcularSaldoPorUsuario(Long id) {
+        return saldoService.recalcularSaldo(id);
+    }
+
+    @Override
+    public SaldoUsuario obterSaldoVersionadoPorUsuario(Long id) {
+        return saldoService.obterSaldoVersionado(id);
+    }
+
+    @Override
+    public long obterVersaoPorUsuario(Long id) {
+        return saldoService.obterVersao(id);
+    }
+
+    @Override
+    public Optional<VersaoUsuario> obterVersaoPorLancamento(Long id) {
+        return saldoService.obterVersaoPorLancamento(id);
+    }
 
-        return receitas.subtract(despesas);
+    /**
+     * Estado gravado na base, lido pela projecao e nao pela entidade: se o chamador passou a entidade
+     * gerenciada ja alterada, o contexto de persistencia devolveria a propria alteracao como estado anterior.
+     * Por isso salvar, atualizar e deletar gravam na hora (flush) o que mudaram.
+     */
+    private LancamentoEstado obterEstadoPersistido(Long id) {
+        return lancamentoRepository.obterEstado(id).orElse(null);
     }
 }
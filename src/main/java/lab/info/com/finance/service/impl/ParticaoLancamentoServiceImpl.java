@@ -0,0 +1,50 @@
+package lab.info.com.finance.service.impl;
+
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.service.ParticaoLancamentoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Year;
+import java.util.Set;
+
+@Service
+public class ParticaoLancamentoServiceImpl implements ParticaoLancamentoService {
+
+    private LancamentoRepository lancamentoRepository;
+
+    private int anosSeguintes;
+
+    // nulo sem particionamento ou antes da primeira criacao
+    private volatile Set<Integer> anosComParticao;
+
+    public ParticaoLancamentoServiceImpl(LancamentoRepository lancamentoRepository,
+                                         @Value("${finance.lancamentos.particoes.anos-seguintes:30}") int anosSeguintes) {
+        this.lancamentoRepository = lancamentoRepository;
+        this.anosSeguintes = anosSeguintes;
+    }
+
+    @Override
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${finance.lancamentos.particoes.cron:0 0 3 * * *}")
+    public void criarParticoes() {
+        // sem particao default, um ano sem particao recusaria o insert: as escritas nao criam
+        // particao, entao os anos seguintes ja ficam prontos
+        int atual = Year.now().getValue();
+        for (int ano = atual; ano <= atual + anosSeguintes; ano++) {
+            lancamentoRepository.criarParticao(ano);
+        }
+        anosComParticao = lancamentoRepository.obterAnosComParticao().map(Set::copyOf).orElse(null);
+    }
+
+    @Override
+    public boolean aceitaAno(int ano) {
+        Set<Integer> anos = anosComParticao;
+        return anos == null || anos.contains(ano);
+    }
+}
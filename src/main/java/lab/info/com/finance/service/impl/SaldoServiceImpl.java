@@ -0,0 +1,128 @@
+package lab.info.com.finance.service.impl;
+
+import lab.info.com.finance.model.entity.SaldoUsuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.projection.VersaoUsuario;
+import lab.info.com.finance.model.repository.SaldoUsuarioRepository;
+import lab.info.com.finance.service.FechamentoService;
+import lab.info.com.finance.service.JornalLancamentoService;
+import lab.info.com.finance.service.SaldoService;
+import lab.info.com.finance.service.projecao.ProjecaoSaldos;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+@Timed("finance.servico")
+public class SaldoServiceImpl implements SaldoService {
+
+    private SaldoUsuarioRepository saldoUsuarioRepository;
+
+    private FechamentoService fechamentoService;
+
+    private JornalLancamentoService jornalService;
+
+    private ProjecaoSaldos projecaoSaldos;
+
+    public SaldoServiceImpl(SaldoUsuarioRepository saldoUsuarioRepository, FechamentoService fechamentoService,
+                            JornalLancamentoService jornalService, ProjecaoSaldos projecaoSaldos) {
+        this.saldoUsuarioRepository = saldoUsuarioRepository;
+        this.fechamentoService = fechamentoService;
+        this.jornalService = jornalService;
+        this.projecaoSaldos = projecaoSaldos;
+    }
+
+    @Override
+    @Transactional
+    public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+        // ordenado por usuario para que dois usuarios sejam sempre bloqueados na mesma ordem
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        acumular(deltas, anterior, true);
+        acumular(deltas, atual, false);
+        aplicar(deltas);
+    }
+
+    @Override
+    @Transactional
+    public void registrar(List<LancamentoEstado> anteriores, List<LancamentoEstado> atuais) {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        anteriores.forEach(anterior -> acumular(deltas, anterior, true));
+        atuais.forEach(atual -> acumular(deltas, atual, false));
+        aplicar(deltas);
+    }
+
+    private void aplicar(Map<Long, BigDecimal> deltas) {
+        // delta zero ainda conta: a escrita mudou os lancamentos do usuario e a versao precisa andar
+        deltas.forEach((idUsuario, delta) -> {
+            Optional<SaldoUsuario> saldo = saldoUsuarioRepository.obterParaAtualizacao(idUsuario);
+            if (saldo.isEmpty()) {
+                // primeira escrita do usuario desde a criacao do ledger: parte do saldo gravado nas linhas.
+                // O for update nao trava linha ausente; a insercao idempotente cria a linha antes de trava-la
+                saldoUsuarioRepository.criarSeAusente(idUsuario, fechamentoService.calcularSaldo(idUsuario));
+                saldo = saldoUsuarioRepository.obterParaAtualizacao(idUsuario);
+            }
+            SaldoUsuario atual = saldo.orElseThrow();
+            atual.setValor(atual.getValor().add(delta));
+            atual.setVersao(atual.getVersao() + 1);
+        });
+    }
+
+    @Override
+    public BigDecimal obterSaldo(Long idUsuario) {
+        // sem transacao: a leitura em memoria nao precisa de conexao
+        if (jornalService.emMemoria()) {
+            return projecaoSaldos.obterSaldo(idUsuario);
+        }
+        return saldoUsuarioRepository.findById(idUsuario)
+                .map(SaldoUsuario::getValor)
+                .orElseGet(() -> recalcularSaldo(idUsuario));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal recalcularSaldo(Long idUsuario) {
+        return fechamentoService.calcularSaldo(idUsuario);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SaldoUsuario obterSaldoVersionado(Long idUsuario) {
+        return saldoUsuarioRepository.findById(idUsuario)
+                .orElseGet(() -> SaldoUsuario.builder().idUsuario(idUsuario).valor(recalcularSaldo(idUsuario)).build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long obterVersao(Long idUsuario) {
+        return saldoUsuarioRepository.obterVersao(idUsuario).orElse(0L);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersaoUsuario> obterVersaoPorLancamento(Long idLancamento) {
+        return saldoUsuarioRepository.obterVersaoPorLancamento(idLancamento);
+    }
+
+    private void acumular(Map<Long, BigDecimal> deltas, LancamentoEstado estado, boolean estorno) {
+        if (estado == null || estado.idUsuario() == null) {
+            return;
+        }
+        BigDecimal efeito = efeitoNoSaldo(estado);
+        deltas.merge(estado.idUsuario(), estorno ? efeito.negate() : efeito, BigDecimal::add);
+    }
+
+    private BigDecimal efeitoNoSaldo(LancamentoEstado estado) {
+        if (estado.status() != StatusLancamento.EFETIVADO || estado.valor() == null || estado.tipo() == null) {
+            return BigDecimal.ZERO;
+        }
+        return estado.tipo() == TipoLancamento.RECEITA ? estado.valor() : estado.valor().negate();
+    }
+}
@@ -5,20 +5,30 @@ import lab.info.com.finance.exceptions.RegraNegocioException;
 import lab.info.com.finance.model.entity.Usuario;
 import lab.info.com.finance.model.repository.UsuarioRepository;
 import lab.info.com.finance.service.UsuarioService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
 @Service
+@Timed("finance.servico")
 public class UsuarioServiceImpl implements UsuarioService {
 
     private UsuarioRepository repository;
 
+    private CacheManager cacheManager;
+
     @Autowired
-    public UsuarioServiceImpl(UsuarioRepository repository) {
+    public UsuarioServiceImpl(UsuarioRepository repository, CacheManager cacheManager) {
         this.repository = repository;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -38,7 +48,23 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Transactional
     public Usuario salvarUsuario(Usuario usuario){
         validarEmail(usuario.getEmail());
-        return repository.save(usuario);
+        Usuario salvo = repository.save(usuario);
+        invalidarCacheAposCommit(salvo.getId());
+        return salvo;
+    }
+
+    private void invalidarCacheAposCommit(Long id) {
+        // antes do commit uma leitura concorrente recarregaria o usuario antigo no cache
+        Cache cache = cacheManager.getCache("usuarios");
+        if (id == null || cache == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(id);
+            }
+        });
     }
 
     @Override
@@ -50,7 +76,10 @@ public class UsuarioServiceImpl implements UsuarioService {
     }
 
     @Override
+    @Cacheable(cacheNames = "usuarios", unless = "#result == null")
     public Optional<Usuario> obterPorId(Long id) {
-        return repository.findById(id) ;
+        // o cache guarda uma copia sem a senha; so a autenticacao precisa dela, e ela consulta a base
+        return repository.findById(id)
+                .map(usuario -> Usuario.builder().id(usuario.getId()).nome(usuario.getNome()).email(usuario.getEmail()).build());
     }
 }
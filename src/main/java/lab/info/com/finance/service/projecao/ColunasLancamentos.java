@@ -0,0 +1,313 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import lab.info.com.finance.model.valor.Dinheiro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lancamentos de um usuario em colunas de primitivos, uma linha por lancamento e sem ordem. As
+ * agregacoes percorrem os arrays num laco sem alocacao por linha; cada grupo e uma posicao de um
+ * array de acumuladores, com a chave calculada a partir das dimensoes agrupadas.
+ *
+ * <p>Os eventos sao aplicados pelo id do lancamento: +1 grava o estado na linha dele e -1 remove a
+ * linha se ela estiver naquele estado. Um evento que a carga do banco ja refletia nao muda nada. A
+ * linha de cada id vem de um {@link IndicePorId}, mantido junto com as colunas.
+ */
+public final class ColunasLancamentos {
+
+    private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+
+    private static final StatusLancamento[] STATUS = StatusLancamento.values();
+
+    // arrays, referencias e cabecalhos
+    private static final int BYTES_FIXOS = 256;
+
+    private static final int BYTES_POR_LINHA = Long.BYTES + 4 * Integer.BYTES + Long.BYTES;
+
+    private long[] ids;
+
+    private int[] anos;
+
+    private int[] meses;
+
+    private int[] tipos;
+
+    private int[] status;
+
+    private long[] centavos;
+
+    private int tamanho;
+
+    private IndicePorId indice;
+
+    public ColunasLancamentos() {
+        this(16);
+    }
+
+    public ColunasLancamentos(int capacidade) {
+        ids = new long[capacidade];
+        anos = new int[capacidade];
+        meses = new int[capacidade];
+        tipos = new int[capacidade];
+        status = new int[capacidade];
+        centavos = new long[capacidade];
+        indice = new IndicePorId(capacidade);
+    }
+
+    /**
+     * Acrescenta uma linha lida do banco; estados incompletos ficam de fora, como nas demais projecoes.
+     */
+    public synchronized void adicionar(LancamentoEstado estado) {
+        if (completo(estado)) {
+            acrescentar(estado);
+        }
+    }
+
+    /**
+     * @return se a capacidade mudou, e com ela o peso da entrada no cache
+     */
+    public synchronized boolean aplicar(EventoLancamento evento) {
+        LancamentoEstado estado = new LancamentoEstado(evento.getIdLancamento(), evento.getIdUsuario(), evento.getAno(),
+                evento.getMes(), evento.getTipo(), evento.getStatus(), evento.getValor());
+        if (!completo(estado)) {
+            return false;
+        }
+        int linha = indice.linha(estado.id());
+        if (evento.getSinal() < 0) {
+            if (linha >= 0 && noEstado(linha, estado)) {
+                remover(linha);
+            }
+            return false;
+        }
+        if (linha >= 0) {
+            gravar(linha, estado);
+            return false;
+        }
+        int bytes = bytes();
+        acrescentar(estado);
+        return bytes() != bytes;
+    }
+
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Memoria aproximada ocupada, para o limite do cache.
+     */
+    public synchronized int bytes() {
+        return BYTES_FIXOS + ids.length * BYTES_POR_LINHA + indice.bytes();
+    }
+
+    /**
+     * Quantidade e soma por combinacao das dimensoes pedidas, entre as linhas que passam no filtro, em
+     * ordem de ano, mes, tipo e status (estes dois na ordem de declaracao). Sem dimensoes, um unico grupo
+     * com o total.
+     */
+    public synchronized List<GrupoLancamentos> agregar(FiltroAgregacao filtro, Set<DimensaoLancamento> dimensoes) {
+        if (tamanho == 0) {
+            return List.of();
+        }
+        int anoMinimo = anos[0];
+        int anoMaximo = anos[0];
+        for (int i = 1; i < tamanho; i++) {
+            anoMinimo = Math.min(anoMinimo, anos[i]);
+            anoMaximo = Math.max(anoMaximo, anos[i]);
+        }
+
+        // cada dimensao agrupada e um digito da chave; as demais multiplicam por zero
+        boolean porAno = dimensoes.contains(DimensaoLancamento.ANO);
+        boolean porMes = dimensoes.contains(DimensaoLancamento.MES);
+        boolean porTipo = dimensoes.contains(DimensaoLancamento.TIPO);
+        boolean porStatus = dimensoes.contains(DimensaoLancamento.STATUS);
+        int passoStatus = porStatus ? 1 : 0;
+        int passoTipo = porTipo ? (porStatus ? STATUS.length : 1) : 0;
+        int passoMes = porMes ? (porStatus ? STATUS.length : 1) * (porTipo ? TIPOS.length : 1) : 0;
+        int passoAno = porAno ? (porStatus ? STATUS.length : 1) * (porTipo ? TIPOS.length : 1) * (porMes ? 12 : 1) : 0;
+        int grupos = (porAno ? anoMaximo - anoMinimo + 1 : 1) * (porMes ? 12 : 1)
+                * (porTipo ? TIPOS.length : 1) * (porStatus ? STATUS.length : 1);
+
+        int filtroAno = filtro.ano() == null ? -1 : filtro.ano();
+        int filtroMes = filtro.mes() == null ? -1 : filtro.mes();
+        int filtroTipo = filtro.tipo() == null ? -1 : filtro.tipo().ordinal();
+        int filtroStatus = filtro.status() == null ? -1 : filtro.status().ordinal();
+
+        long[] quantidades = new long[grupos];
+        long[] somas = new long[grupos];
+        for (int i = 0; i < tamanho; i++) {
+            if ((filtroAno < 0 || anos[i] == filtroAno) & (filtroMes < 0 || meses[i] == filtroMes)
+                    & (filtroTipo < 0 || tipos[i] == filtroTipo) & (filtroStatus < 0 || status[i] == filtroStatus)) {
+                int chave = (anos[i] - anoMinimo) * passoAno + (meses[i] - 1) * passoMes
+                        + tipos[i] * passoTipo + status[i] * passoStatus;
+                quantidades[chave]++;
+                somas[chave] = Dinheiro.somar(somas[chave], centavos[i]);
+            }
+        }
+
+        List<GrupoLancamentos> resultado = new ArrayList<>();
+        for (int chave = 0; chave < grupos; chave++) {
+            if (quantidades[chave] == 0) {
+                continue;
+            }
+            resultado.add(new GrupoLancamentos(
+                    porAno ? anoMinimo + chave / passoAno : null,
+                    porMes ? 1 + chave / passoMes % 12 : null,
+                    porTipo ? TIPOS[chave / passoTipo % TIPOS.length] : null,
+                    porStatus ? STATUS[chave % STATUS.length] : null,
+                    quantidades[chave], Dinheiro.decimal(somas[chave])));
+        }
+        return resultado;
+    }
+
+    private static boolean completo(LancamentoEstado estado) {
+        return estado.id() != null && estado.ano() != null && estado.mes() != null && estado.mes() >= 1 && estado.mes() <= 12
+                && estado.tipo() != null && estado.status() != null && estado.valor() != null;
+    }
+
+    private boolean noEstado(int linha, LancamentoEstado estado) {
+        return anos[linha] == estado.ano() && meses[linha] == estado.mes() && tipos[linha] == estado.tipo().ordinal()
+                && status[linha] == estado.status().ordinal() && centavos[linha] == Dinheiro.centavos(estado.valor());
+    }
+
+    private void acrescentar(LancamentoEstado estado) {
+        if (tamanho == ids.length) {
+            int capacidade = Math.max(16, tamanho + (tamanho >> 1));
+            ids = Arrays.copyOf(ids, capacidade);
+            anos = Arrays.copyOf(anos, capacidade);
+            meses = Arrays.copyOf(meses, capacidade);
+            tipos = Arrays.copyOf(tipos, capacidade);
+            status = Arrays.copyOf(status, capacidade);
+            centavos = Arrays.copyOf(centavos, capacidade);
+        }
+        indice.colocar(estado.id(), tamanho);
+        gravar(tamanho++, estado);
+    }
+
+    private void gravar(int linha, LancamentoEstado estado) {
+        ids[linha] = estado.id();
+        anos[linha] = estado.ano();
+        meses[linha] = estado.mes();
+        tipos[linha] = estado.tipo().ordinal();
+        status[linha] = estado.status().ordinal();
+        centavos[linha] = Dinheiro.centavos(estado.valor());
+    }
+
+    // a ordem das linhas nao importa: a ultima ocupa o lugar da removida
+    private void remover(int linha) {
+        indice.remover(ids[linha]);
+        int ultima = --tamanho;
+        if (linha == ultima) {
+            return;
+        }
+        indice.colocar(ids[ultima], linha);
+        ids[linha] = ids[ultima];
+        anos[linha] = anos[ultima];
+        meses[linha] = meses[ultima];
+        tipos[linha] = tipos[ultima];
+        status[linha] = status[ultima];
+        centavos[linha] = centavos[ultima];
+    }
+
+    /**
+     * Id do lancamento para a linha, em enderecamento aberto com sondagem linear sobre arrays de
+     * primitivos: sem boxing nem um objeto por entrada. Ocupa no maximo metade das posicoes, e a
+     * remocao puxa de volta as chaves seguintes do mesmo agrupamento em vez de deixar lapides.
+     */
+    static final class IndicePorId {
+
+        private long[] chaves;
+
+        // linha + 1; zero marca a posicao vazia
+        private int[] linhas;
+
+        private int tamanho;
+
+        IndicePorId(int capacidade) {
+            int posicoes = Integer.highestOneBit(Math.max(8, capacidade) * 2 - 1) << 1;
+            chaves = new long[posicoes];
+            linhas = new int[posicoes];
+        }
+
+        /**
+         * @return a linha do id, ou -1 se ele nao estiver no indice
+         */
+        int linha(long id) {
+            int mascara = chaves.length - 1;
+            for (int i = posicao(id, mascara); linhas[i] != 0; i = (i + 1) & mascara) {
+                if (chaves[i] == id) {
+                    return linhas[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void colocar(long id, int linha) {
+            if ((tamanho + 1) * 2 > chaves.length) {
+                redimensionar(chaves.length * 2);
+            }
+            int mascara = chaves.length - 1;
+            int i = posicao(id, mascara);
+            while (linhas[i] != 0 && chaves[i] != id) {
+                i = (i + 1) & mascara;
+            }
+            if (linhas[i] == 0) {
+                tamanho++;
+            }
+            chaves[i] = id;
+            linhas[i] = linha + 1;
+        }
+
+        void remover(long id) {
+            int mascara = chaves.length - 1;
+            int vaga = posicao(id, mascara);
+            while (linhas[vaga] != 0 && chaves[vaga] != id) {
+                vaga = (vaga + 1) & mascara;
+            }
+            if (linhas[vaga] == 0) {
+                return;
+            }
+            // cada chave seguinte volta para a vaga se a posicao ideal dela nao estiver entre as duas
+            for (int i = (vaga + 1) & mascara; linhas[i] != 0; i = (i + 1) & mascara) {
+                int ideal = posicao(chaves[i], mascara);
+                if (((i - ideal) & mascara) >= ((i - vaga) & mascara)) {
+                    chaves[vaga] = chaves[i];
+                    linhas[vaga] = linhas[i];
+                    vaga = i;
+                }
+            }
+            linhas[vaga] = 0;
+            tamanho--;
+        }
+
+        int bytes() {
+            return chaves.length * (Long.BYTES + Integer.BYTES);
+        }
+
+        private void redimensionar(int posicoes) {
+            long[] chavesAntigas = chaves;
+            int[] linhasAntigas = linhas;
+            chaves = new long[posicoes];
+            linhas = new int[posicoes];
+            tamanho = 0;
+            for (int i = 0; i < chavesAntigas.length; i++) {
+                if (linhasAntigas[i] != 0) {
+                    colocar(chavesAntigas[i], linhasAntigas[i] - 1);
+                }
+            }
+        }
+
+        private static int posicao(long id, int mascara) {
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mascara;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package lab.info.com.finance.service.projecao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lab.info.com.finance.model.entity.EventoLancamento;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link ColunasLancamentos} dos usuarios consultados recentemente. Diferente das demais projecoes,
+ * nao guarda todos os usuarios: cada um e carregado do banco na primeira consulta e descartado pelo
+ * limite de memoria ou por expiracao. A expiracao tambem limita quanto tempo uma divergencia, por
+ * eventos de um mesmo lancamento entregues fora de ordem, sobreviveria.
+ *
+ * <p>Eventos que chegam enquanto um usuario esta sendo carregado sao guardados e aplicados sobre a
+ * carga antes de ela entrar no cache; os que a carga ja refletia nao mudam nada.
+ */
+@Component
+public class ProjecaoColunar implements ProjecaoLancamentos {
+
+    private Cache<Long, ColunasLancamentos> colunas;
+
+    private Map<Long, Carga> carregando = new ConcurrentHashMap<>();
+
+    public ProjecaoColunar(@Value("${finance.agregacao.memoria-maxima:64MB}") DataSize memoriaMaxima,
+                           @Value("${finance.agregacao.expiracao:10m}") Duration expiracao) {
+        this.colunas = Caffeine.newBuilder()
+                .maximumWeight(memoriaMaxima.toBytes())
+                .weigher((Long idUsuario, ColunasLancamentos doUsuario) -> doUsuario.bytes())
+                .expireAfterWrite(expiracao)
+                .build();
+    }
+
+    private static final class Carga {
+
+        // quem consulta o banco; os eventos usam o monitor da propria carga e nao esperam a consulta
+        private final Object carregamento = new Object();
+
+        private final List<EventoLancamento> recebidos = new ArrayList<>();
+
+        private boolean encerrada;
+
+        private boolean descartada;
+
+        synchronized boolean receber(EventoLancamento evento) {
+            if (encerrada) {
+                return false;
+            }
+            recebidos.add(evento);
+            return true;
+        }
+    }
+
+    @Override
+    public void aplicar(EventoLancamento evento) {
+        Long idUsuario = evento.getIdUsuario();
+        Carga carga = carregando.get(idUsuario);
+        if (carga != null && carga.receber(evento)) {
+            return;
+        }
+        ColunasLancamentos doUsuario = colunas.getIfPresent(idUsuario);
+        if (doUsuario != null && doUsuario.aplicar(evento)) {
+            // o peso so e recalculado quando a entrada e gravada de novo
+            colunas.asMap().computeIfPresent(idUsuario, (id, atual) -> atual);
+        }
+    }
+
+    @Override
+    public void limpar() {
+        carregando.values().forEach(carga -> {
+            synchronized (carga) {
+                carga.descartada = true;
+            }
+        });
+        colunas.invalidateAll();
+    }
+
+    /**
+     * Colunas do usuario, carregando com {@code carregar} se ainda nao estiverem no cache. Cargas
+     * simultaneas do mesmo usuario esperam pela primeira.
+     */
+    public ColunasLancamentos obter(Long idUsuario, Supplier<ColunasLancamentos> carregar) {
+        while (true) {
+            ColunasLancamentos doUsuario = colunas.getIfPresent(idUsuario);
+            if (doUsuario != null) {
+                return doUsuario;
+            }
+            Carga carga = carregando.computeIfAbsent(idUsuario, id -> new Carga());
+            synchronized (carga.carregamento) {
+                synchronized (carga) {
+                    if (carga.encerrada) {
+                        // outra thread terminou esta carga; se a entrada ja saiu do cache, comeca outra
+                        continue;
+                    }
+                }
+                try {
+                    ColunasLancamentos carregadas = carregar.get();
+                    synchronized (carga) {
+                        carga.recebidos.forEach(carregadas::aplicar);
+                        carga.encerrada = true;
+                        if (!carga.descartada) {
+                            colunas.put(idUsuario, carregadas);
+                        }
+                    }
+                    return carregadas;
+                } finally {
+                    synchronized (carga) {
+                        carga.encerrada = true;
+                    }
+                    carregando.remove(idUsuario, carga);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Quantos lancamentos cada usuario tem em cada status.
+ */
+@Component
+public class ProjecaoContagemPorStatus implements ProjecaoLancamentos {
+
+    private final Map<Long, ConcurrentMap<StatusLancamento, Long>> contagens = new ConcurrentHashMap<>();
+
+    @Override
+    public void aplicar(EventoLancamento evento) {
+        if (evento.getStatus() == null) {
+            return;
+        }
+        contagens.computeIfAbsent(evento.getIdUsuario(), id -> new ConcurrentHashMap<>())
+                .merge(evento.getStatus(), evento.getSinal().longValue(),
+                        (atual, delta) -> atual + delta == 0 ? null : atual + delta);
+    }
+
+    @Override
+    public void limpar() {
+        contagens.clear();
+    }
+
+    public Map<StatusLancamento, Long> obterContagem(Long idUsuario) {
+        Map<StatusLancamento, Long> contagem = new EnumMap<>(StatusLancamento.class);
+        Map<StatusLancamento, Long> doUsuario = contagens.get(idUsuario);
+        if (doUsuario != null) {
+            contagem.putAll(doUsuario);
+        }
+        return contagem;
+    }
+}
@@ -0,0 +1,19 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+
+/**
+ * Agregado em memoria mantido a partir do jornal de lancamentos. Toda projecao registrada como
+ * bean recebe o replay completo ao subir a aplicacao e, depois, cada evento confirmado.
+ *
+ * <p>{@link #aplicar(EventoLancamento)} pode ser chamado por varias threads ao mesmo tempo.
+ */
+public interface ProjecaoLancamentos {
+
+    void aplicar(EventoLancamento evento);
+
+    /**
+     * Volta ao estado vazio, antes de um novo replay.
+     */
+    void limpar();
+}
@@ -0,0 +1,43 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.valor.Dinheiro;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saldo efetivado de cada usuario, com a mesma regra do saldo materializado. Guardado em centavos:
+ * aplicar um evento nao aloca, o que pesa no replay do jornal inteiro ao subir a aplicacao.
+ */
+@Component
+public class ProjecaoSaldos implements ProjecaoLancamentos {
+
+    private final Map<Long, AtomicLong> saldos = new ConcurrentHashMap<>();
+
+    @Override
+    public void aplicar(EventoLancamento evento) {
+        if (evento.getStatus() != StatusLancamento.EFETIVADO || evento.getValor() == null || evento.getTipo() == null) {
+            return;
+        }
+        long valor = Dinheiro.centavos(evento.getValor());
+        long efeito = evento.getTipo() == TipoLancamento.RECEITA ? valor : Dinheiro.negar(valor);
+        saldos.computeIfAbsent(evento.getIdUsuario(), id -> new AtomicLong())
+                .accumulateAndGet(evento.getSinal() < 0 ? Dinheiro.negar(efeito) : efeito, Dinheiro::somar);
+    }
+
+    @Override
+    public void limpar() {
+        saldos.clear();
+    }
+
+    public BigDecimal obterSaldo(Long idUsuario) {
+        AtomicLong saldo = saldos.get(idUsuario);
+        return Dinheiro.decimal(saldo == null ? 0 : saldo.get());
+    }
+}
@@ -0,0 +1,108 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.valor.Dinheiro;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Quantidade e soma por usuario, mes, tipo e status, na ordem de {@code obterTotaisMensais}.
+ */
+@Component
+public class ProjecaoTotaisMensais implements ProjecaoLancamentos {
+
+    private record Chave(int ano, int mes, TipoLancamento tipo, StatusLancamento status) {
+    }
+
+    private record Total(long quantidade, long centavos) {
+    }
+
+    // tipo e status pelo nome, como o order by das colunas varchar
+    private static final Comparator<Chave> ORDEM = Comparator.comparingInt(Chave::ano)
+            .thenComparingInt(Chave::mes)
+            .thenComparing(chave -> chave.tipo().name())
+            .thenComparing(chave -> chave.status().name());
+
+    // menor chave de cada mes na ORDEM, para recortar o mapa por periodo
+    private static final TipoLancamento PRIMEIRO_TIPO = Arrays.stream(TipoLancamento.values())
+            .min(Comparator.comparing(Enum::name)).orElseThrow();
+
+    private static final StatusLancamento PRIMEIRO_STATUS = Arrays.stream(StatusLancamento.values())
+            .min(Comparator.comparing(Enum::name)).orElseThrow();
+
+    private final Map<Long, ConcurrentNavigableMap<Chave, Total>> totais = new ConcurrentHashMap<>();
+
+    @Override
+    public void aplicar(EventoLancamento evento) {
+        if (evento.getAno() == null || evento.getMes() == null || evento.getTipo() == null
+                || evento.getStatus() == null || evento.getValor() == null) {
+            return;
+        }
+        Chave chave = new Chave(evento.getAno(), evento.getMes(), evento.getTipo(), evento.getStatus());
+        long valor = Dinheiro.centavos(evento.getValor());
+        Total delta = evento.getSinal() < 0 ? new Total(-1, Dinheiro.negar(valor)) : new Total(1, valor);
+        // o valor e imutavel e o merge e atomico; um mes que volta a zero lancamentos some do mapa
+        totais.computeIfAbsent(evento.getIdUsuario(), id -> new ConcurrentSkipListMap<>(ORDEM))
+                .merge(chave, delta, (atual, mais) -> atual.quantidade() + mais.quantidade() == 0
+                        ? null
+                        : new Total(atual.quantidade() + mais.quantidade(), Dinheiro.somar(atual.centavos(), mais.centavos())));
+    }
+
+    @Override
+    public void limpar() {
+        totais.clear();
+    }
+
+    public List<TotalPeriodo> obterTotais(Long idUsuario) {
+        Map<Chave, Total> doUsuario = totais.get(idUsuario);
+        return doUsuario == null ? List.of() : converter(doUsuario);
+    }
+
+    /**
+     * Totais de {@code inicio} ate {@code fim}, inclusive, percorrendo so esse trecho do mapa.
+     */
+    public List<TotalPeriodo> obterTotais(Long idUsuario, YearMonth inicio, YearMonth fim) {
+        ConcurrentNavigableMap<Chave, Total> doUsuario = totais.get(idUsuario);
+        return doUsuario == null ? List.of() : converter(doUsuario.subMap(primeiraChave(inicio), primeiraChave(fim.plusMonths(1))));
+    }
+
+    /**
+     * Saldo efetivado dos meses antes de {@code periodo}, em centavos.
+     */
+    public long calcularSaldoAntes(Long idUsuario, YearMonth periodo) {
+        ConcurrentNavigableMap<Chave, Total> doUsuario = totais.get(idUsuario);
+        if (doUsuario == null) {
+            return 0;
+        }
+        long saldo = 0;
+        for (Map.Entry<Chave, Total> total : doUsuario.headMap(primeiraChave(periodo)).entrySet()) {
+            if (total.getKey().status() == StatusLancamento.EFETIVADO) {
+                long centavos = total.getValue().centavos();
+                saldo = total.getKey().tipo() == TipoLancamento.RECEITA ? Dinheiro.somar(saldo, centavos) : Dinheiro.subtrair(saldo, centavos);
+            }
+        }
+        return saldo;
+    }
+
+    private static Chave primeiraChave(YearMonth periodo) {
+        return new Chave(periodo.getYear(), periodo.getMonthValue(), PRIMEIRO_TIPO, PRIMEIRO_STATUS);
+    }
+
+    private static List<TotalPeriodo> converter(Map<Chave, Total> doUsuario) {
+        return doUsuario.entrySet().stream()
+                .map(total -> new TotalPeriodo(total.getKey().ano(), total.getKey().mes(), total.getKey().tipo(),
+                        total.getKey().status(), total.getValue().quantidade(), Dinheiro.decimal(total.getValue().centavos())))
+                .toList();
+    }
+}
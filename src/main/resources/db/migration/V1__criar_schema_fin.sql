@@ -0,0 +1,28 @@
+-- Estrutura inicial do schema fin. Os "if not exists" permitem adotar bases criadas
+-- antes das migracoes (baseline na versao 0) sem recriar tabelas existentes.
+
+create table if not exists usuario (
+    id bigint generated by default as identity primary key,
+    nome varchar(255),
+    email varchar(255),
+    senha varchar(255)
+);
+
+create table if not exists lancamento (
+    id bigint not null primary key,
+    descricao varchar(255),
+    mes integer,
+    ano integer,
+    id_usuario bigint references usuario (id),
+    valor numeric(16, 2),
+    data_cadastro timestamp,
+    tipo varchar(20),
+    status varchar(20)
+);
+
+create sequence if not exists lancamento_seq start with 1 increment by 50;
+
+create table if not exists saldo_usuario (
+    id_usuario bigint not null primary key references usuario (id),
+    valor numeric(16, 2) not null
+);
@@ -0,0 +1,9 @@
+-- findByEmail / existsByEmail e a garantia de email unico.
+create unique index if not exists ux_usuario_email on usuario (email);
+
+-- obterSaldoPorUsuario / calcularSaldoPorUsuario: filtro por usuario, status e tipo.
+-- valor vem por ultimo para que a soma seja resolvida so com o indice.
+create index if not exists ix_lancamento_usuario_status_tipo on lancamento (id_usuario, status, tipo, valor);
+
+-- buscar (filtro por usuario, ano e mes) e a paginacao por cursor, que le na ordem (ano, mes, id).
+create index if not exists ix_lancamento_usuario_periodo on lancamento (id_usuario, ano, mes, id);
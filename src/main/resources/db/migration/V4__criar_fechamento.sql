@@ -0,0 +1,21 @@
+-- Fechamento mensal: meses ate (ano, mes) estao fechados para o usuario e seus totais
+-- ficam congelados em fechamento_total, uma linha por (ano, mes, tipo, status).
+create table if not exists fechamento (
+    id_usuario bigint not null primary key references usuario (id),
+    ano integer not null,
+    mes integer not null,
+    data_fechamento timestamp not null
+);
+
+create table if not exists fechamento_total (
+    id bigint generated by default as identity primary key,
+    id_usuario bigint not null references usuario (id),
+    ano integer not null,
+    mes integer not null,
+    tipo varchar(20) not null,
+    status varchar(20) not null,
+    quantidade bigint not null,
+    valor numeric(16, 2) not null
+);
+
+create unique index if not exists ux_fechamento_total_periodo on fechamento_total (id_usuario, ano, mes, tipo, status);
@@ -0,0 +1,17 @@
+-- Jornal append-only das escritas em lancamento. Cada alteracao vira linhas com sinal: -1 desfaz
+-- o estado anterior e +1 aplica o novo, entao qualquer agregado e a soma das linhas.
+create table if not exists evento_lancamento (
+    id bigint not null primary key,
+    tipo_evento varchar(20) not null,
+    id_lancamento bigint not null,
+    id_usuario bigint not null,
+    ano integer,
+    mes integer,
+    tipo varchar(20),
+    status varchar(20),
+    valor numeric(16, 2),
+    sinal integer not null,
+    data_evento timestamp not null
+);
+
+create sequence if not exists evento_lancamento_seq start with 1 increment by 50;
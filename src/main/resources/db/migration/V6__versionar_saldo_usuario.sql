@@ -0,0 +1,3 @@
+-- Contador de modificacoes do usuario: toda escrita em lancamentos dele o incrementa, na mesma
+-- transacao. E a versao dos ETags das leituras de lancamentos e saldo.
+alter table saldo_usuario add column if not exists versao bigint not null default 0;
@@ -0,0 +1,10 @@
+-- Parcelas e recorrencias: os lancamentos gerados juntos compartilham id_grupo, tirado de
+-- grupo_lancamento_seq, e parcela e a posicao de cada um no grupo (1, 2, ...). Lancamentos avulsos
+-- ficam com as duas colunas nulas.
+create sequence if not exists grupo_lancamento_seq;
+
+alter table lancamento add column if not exists id_grupo bigint;
+alter table lancamento add column if not exists parcela integer;
+
+-- edicao e cancelamento do grupo: filtro por id_grupo e status
+create index if not exists ix_lancamento_grupo on lancamento (id_grupo, status);
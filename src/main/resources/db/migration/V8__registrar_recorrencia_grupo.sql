@@ -0,0 +1,4 @@
+-- Tipo de recorrencia do grupo, repetido em cada lancamento gerado: a edicao do grupo precisa saber se
+-- o valor e o de cada mes (MENSAL) ou o total a dividir entre as parcelas (PARCELADA). Grupos gravados
+-- antes da coluna ficam nulos e continuam editados como mensais.
+alter table lancamento add column if not exists recorrencia varchar(20);
@@ -0,0 +1,81 @@
+package lab.info.com.finance;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Conta os comandos SQL enviados ao banco pela thread do teste, para que os testes fixem quantas consultas
+ * cada operacao pode fazer. Um lote JDBC conta como um comando, ja que vai ao banco uma unica vez.
+ *
+ * <pre>
+ * ContadorDeConsultas.zerar();
+ * service.obterSaldoPorUsuario(id);
+ * ContadorDeConsultas.verificar(1);
+ * </pre>
+ */
+public final class ContadorDeConsultas implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<String>> EXECUTADAS = ThreadLocal.withInitial(ArrayList::new);
+
+    public static void zerar() {
+        EXECUTADAS.get().clear();
+    }
+
+    public static List<String> executadas() {
+        return List.copyOf(EXECUTADAS.get());
+    }
+
+    /**
+     * Falha quando a quantidade de comandos desde o ultimo {@link #zerar()} e diferente da esperada,
+     * listando os comandos para facilitar achar a consulta a mais (tipicamente um N+1).
+     */
+    public static void verificar(int esperadas) {
+        List<String> executadas = EXECUTADAS.get();
+        if (executadas.size() != esperadas) {
+            throw new AssertionError("Esperava " + esperadas + " comando(s) SQL, mas foram executados " + executadas.size() + ":\n"
+                    + executadas.stream().map(sql -> "  " + sql).collect(Collectors.joining("\n")));
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // em um Statement com addBatch cada SQL distinto chega como um QueryInfo do mesmo envio
+        if (execInfo.isBatch()) {
+            EXECUTADAS.get().add(queryInfoList.get(0).getQuery() + " [lote de " + execInfo.getBatchSize() + "]");
+        } else {
+            queryInfoList.forEach(query -> EXECUTADAS.get().add(query.getQuery()));
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Configuracao {
+
+        @Bean
+        static BeanPostProcessor contadorDeConsultas() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(new ContadorDeConsultas()).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package lab.info.com.finance;
+
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Envolve o DataSource do contexto de teste para que {@link ContadorDeConsultas} registre os comandos SQL
+ * executados por cada chamada.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Import(ContadorDeConsultas.Configuracao.class)
+public @interface ContarConsultas {
+}
@@ -0,0 +1,141 @@
+package lab.info.com.finance.api.admissao;
+
+import lab.info.com.finance.api.resource.LancamentoResource;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "finance.admissao.habilitada=true",
+        "finance.admissao.rajada=3",
+        "finance.admissao.fichas-por-segundo=0.01",
+        "finance.admissao.espera-maxima=10ms",
+        "finance.admissao.leitura-pesada.concorrencia=1",
+        "finance.admissao.leitura-pesada.custo=1"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class AdmissaoInterceptorTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    AdmissaoInterceptor interceptor;
+
+    @Autowired
+    LancamentoResource lancamentoResource;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    @DisplayName("Deve responder 429 com Retry-After quando o cliente esgota suas fichas, sem afetar os demais")
+    public void deveLimitarCadaCliente() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("admissao@email.com").senha("senha").build());
+        Usuario outro = usuarioRepository.save(Usuario.builder().nome("outro").email("admissao-outro@email.com").senha("senha").build());
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/contagem-por-status", usuario.getId()).with(cliente("10.0.0.1")))
+                    .andExpect(status().isOk());
+        }
+
+        //acao / verificacao
+        String retryAfter = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/contagem-por-status", usuario.getId()).with(cliente("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andReturn().getResponse().getHeader(HttpHeaders.RETRY_AFTER);
+        Assertions.assertThat(Long.parseLong(retryAfter)).isBetween(1L, 100L);
+        // trocar o id da requisicao nao da um balde novo ao mesmo cliente
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/contagem-por-status", outro.getId()).with(cliente("10.0.0.1")))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/contagem-por-status", usuario.getId()).with(cliente("10.0.0.2")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Deve responder 503 quando as vagas da classe estao ocupadas e voltar a admitir quando liberadas")
+    public void deveLimitarAsRequisicoesSimultaneasDaClasse() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("admissao-pesada@email.com").senha("senha").build());
+        HandlerMethod busca = new HandlerMethod(lancamentoResource,
+                LancamentoResource.class.getMethod("buscarPorTexto", Long.class, String.class, Integer.class));
+        MockHttpServletRequest emAndamento = new MockHttpServletRequest("GET", "/api/lancamentos/busca");
+        emAndamento.setRemoteAddr("10.0.0.3");
+        Assertions.assertThat(interceptor.preHandle(emAndamento, new MockHttpServletResponse(), busca)).isTrue();
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/busca").with(cliente("10.0.0.4"))
+                        .param("usuario", usuario.getId().toString()).param("texto", "mercado"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/contagem-por-status", usuario.getId()).with(cliente("10.0.0.4")))
+                .andExpect(status().isOk());
+
+        interceptor.afterCompletion(emAndamento, new MockHttpServletResponse(), busca, null);
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/busca").with(cliente("10.0.0.4"))
+                        .param("usuario", usuario.getId().toString()).param("texto", "mercado"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 a revalidacao da listagem sem cobrar fichas nem vaga da leitura pesada")
+    public void deveRevalidarAntesDeCobrar() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("admissao-etag@email.com").senha("senha").build());
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").with(cliente("10.0.0.5"))
+                        .param("usuario", usuario.getId().toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        HandlerMethod busca = new HandlerMethod(lancamentoResource,
+                LancamentoResource.class.getMethod("buscarPorTexto", Long.class, String.class, Integer.class));
+        MockHttpServletRequest emAndamento = new MockHttpServletRequest("GET", "/api/lancamentos/busca");
+        emAndamento.setRemoteAddr("10.0.0.6");
+        Assertions.assertThat(interceptor.preHandle(emAndamento, new MockHttpServletResponse(), busca)).isTrue();
+
+        //acao / verificacao
+        try {
+            for (int i = 0; i < 5; i++) {
+                mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").with(cliente("10.0.0.5"))
+                                .param("usuario", usuario.getId().toString())
+                                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, etag));
+            }
+        } finally {
+            interceptor.afterCompletion(emAndamento, new MockHttpServletResponse(), busca, null);
+        }
+        // so a primeira leitura foi cobrada: ainda ha fichas para mais duas
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").with(cliente("10.0.0.5"))
+                            .param("usuario", usuario.getId().toString()))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private static RequestPostProcessor cliente(String endereco) {
+        return requisicao -> {
+            requisicao.setRemoteAddr(endereco);
+            return requisicao;
+        };
+    }
+}
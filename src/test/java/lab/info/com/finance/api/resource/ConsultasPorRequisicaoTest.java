@@ -0,0 +1,114 @@
+package lab.info.com.finance.api.resource;
+
+import lab.info.com.finance.ContadorDeConsultas;
+import lab.info.com.finance.ContarConsultas;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.LancamentoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContarConsultas
+public class ConsultasPorRequisicaoTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    @DisplayName("Deve executar um numero fixo de comandos SQL por requisicao")
+    public void deveRespeitarOOrcamentoDeConsultasPorRequisicao() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("orcamento-api@email.com").senha("senha").build());
+        Lancamento lancamento = lancamentoService.salvar(Lancamento.builder().ano(2021).mes(1).descricao("extrato")
+                .valor(BigDecimal.TEN).tipo(TipoLancamento.DESPESA).usuario(usuario).build());
+        lancamentoService.atualizarStatus(lancamento.getId(), StatusLancamento.EFETIVADO);
+
+        //acao / verificacao
+        // sem o cache de usuarios (desligado no perfil de teste), cada endpoint paga tambem a busca do usuario
+        ContadorDeConsultas.zerar();
+        String etagSaldo = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/saldo", usuario.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        ContadorDeConsultas.verificar(2);
+
+        ContadorDeConsultas.zerar();
+        String etagLista = mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString()).param("tamanho", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        ContadorDeConsultas.verificar(3);
+
+        ContadorDeConsultas.zerar();
+        String etagLancamento = mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/{id}", lancamento.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        ContadorDeConsultas.verificar(2);
+
+        // com o ETag ainda valido so a versao e lida: nem a consulta nem a serializacao acontecem
+        ContadorDeConsultas.zerar();
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/saldo", usuario.getId()).header(HttpHeaders.IF_NONE_MATCH, etagSaldo))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        ContadorDeConsultas.verificar(2);
+
+        ContadorDeConsultas.zerar();
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString()).param("tamanho", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, etagLista))
+                .andExpect(status().isNotModified());
+        ContadorDeConsultas.verificar(2);
+
+        ContadorDeConsultas.zerar();
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/{id}", lancamento.getId()).header(HttpHeaders.IF_NONE_MATCH, etagLancamento))
+                .andExpect(status().isNotModified());
+        ContadorDeConsultas.verificar(1);
+
+        String json = "{\"descricao\": \"extrato atualizado\", \"mes\": 1, \"ano\": 2021, \"valor\": 20, \"tipo\": \"DESPESA\", "
+                + "\"status\": \"EFETIVADO\", \"usuario\": " + usuario.getId() + "}";
+        ContadorDeConsultas.zerar();
+        mvc.perform(MockMvcRequestBuilders.put("/api/lancamentos/{id}", lancamento.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+        // o estado anterior vem da projecao, entao o merge da entidade convertida le a linha de novo
+        ContadorDeConsultas.verificar(10);
+
+        // a escrita avancou a versao: os ETags antigos deixam de valer
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/{id}", lancamento.getId()).header(HttpHeaders.IF_NONE_MATCH, etagLancamento))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etagLancamento)));
+        mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/{id}/saldo", usuario.getId()).header(HttpHeaders.IF_NONE_MATCH, etagSaldo))
+                .andExpect(status().isOk())
+                .andExpect(content().string("-20.00"));
+    }
+}
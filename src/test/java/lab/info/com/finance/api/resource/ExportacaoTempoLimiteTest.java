@@ -0,0 +1,87 @@
+package lab.info.com.finance.api.resource;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.LancamentoService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ExportacaoTempoLimiteTest {
+
+    @LocalServerPort
+    int porta;
+
+    @MockBean
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    /**
+     * Encurta o tempo padrao do Tomcat para o teste nao esperar 30s: so o spring.mvc.async.request-timeout
+     * da aplicacao deixa a exportacao passar dele.
+     */
+    @TestConfiguration
+    static class TempoPadraoCurto {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> tempoAssincronoPadrao() {
+            return fabrica -> fabrica.addConnectorCustomizers(conector -> conector.setAsyncTimeout(500));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve exportar ate o fim mesmo passando do tempo assincrono padrao do servidor")
+    @SuppressWarnings("unchecked")
+    public void deveExportarAlemDoTempoPadrao() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("exportacao-lenta@email.com").senha("senha").build());
+        Mockito.doAnswer(invocacao -> {
+            Consumer<LancamentoProjecao> consumidor = invocacao.getArgument(1);
+            for (long id = 1; id <= 3; id++) {
+                consumidor.accept(LancamentoProjecao.de(Lancamento.builder().id(id).ano(2021).mes(1).descricao("extrato")
+                        .valor(BigDecimal.TEN).tipo(TipoLancamento.RECEITA).status(StatusLancamento.EFETIVADO).usuario(usuario).build()));
+                Thread.sleep(600);
+            }
+            return null;
+        }).when(lancamentoService).exportar(Mockito.eq(usuario.getId()), Mockito.any(Consumer.class));
+
+        //acao
+        HttpResponse<String> resposta = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/lancamentos/exportacao?usuario=" + usuario.getId())).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        //verificacao
+        Assertions.assertThat(resposta.statusCode()).isEqualTo(200);
+        Assertions.assertThat(resposta.body().lines()).hasSize(3);
+    }
+}
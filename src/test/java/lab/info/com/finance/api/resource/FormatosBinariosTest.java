@@ -0,0 +1,110 @@
+package lab.info.com.finance.api.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lab.info.com.finance.api.dto.LancamentoDTO;
+import lab.info.com.finance.config.FormatosBinariosConfig;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.LancamentoService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class FormatosBinariosTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    @DisplayName("Deve responder a mesma lista em JSON, CBOR e Smile conforme o Accept")
+    public void deveNegociarOFormatoDaLista() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("formatos@email.com").senha("senha").build());
+        for (int mes = 1; mes <= 3; mes++) {
+            lancamentoService.salvar(Lancamento.builder().ano(2021).mes(mes).descricao("conta de luz")
+                    .valor(new BigDecimal("187.45")).tipo(TipoLancamento.DESPESA).usuario(usuario).build());
+        }
+
+        //acao
+        byte[] json = listar(usuario, null);
+        byte[] cbor = listar(usuario, MediaType.APPLICATION_CBOR);
+        byte[] smile = listar(usuario, FormatosBinariosConfig.APPLICATION_SMILE);
+
+        //verificacao
+        List<LancamentoDTO> lancamentos = List.of(objectMapper.readValue(json, LancamentoDTO[].class));
+        Assertions.assertThat(lancamentos).hasSize(3);
+        Assertions.assertThat(List.of(new CBORMapper().findAndRegisterModules().readValue(cbor, LancamentoDTO[].class)))
+                .isEqualTo(lancamentos);
+        Assertions.assertThat(List.of(new SmileMapper().findAndRegisterModules().readValue(smile, LancamentoDTO[].class)))
+                .isEqualTo(lancamentos);
+        Assertions.assertThat(cbor.length).isLessThan(json.length);
+        Assertions.assertThat(smile.length).isLessThan(cbor.length);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar um lancamento enviado em CBOR")
+    public void deveLerLancamentoEmCbor() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("formatos-cbor@email.com").senha("senha").build());
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("mercado").mes(1).ano(2021).valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.DESPESA).usuario(usuario.getId()).build();
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(new CBORMapper().writeValueAsBytes(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    private byte[] listar(Usuario usuario, MediaType formato) throws Exception {
+        MockHttpServletRequestBuilder requisicao = MockMvcRequestBuilders.get("/api/lancamentos")
+                .param("usuario", usuario.getId().toString());
+        if (formato != null) {
+            requisicao.accept(formato);
+        }
+        return mvc.perform(requisicao)
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(formato == null ? MediaType.APPLICATION_JSON : formato))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
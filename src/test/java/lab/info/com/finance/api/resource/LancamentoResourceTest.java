@@ -0,0 +1,315 @@
+package lab.info.com.finance.api.resource;
+
+import lab.info.com.finance.exceptions.LimiteExcedidoException;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.service.LancamentoService;
+import lab.info.com.finance.service.UsuarioService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest( controllers = LancamentoResource.class )
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+
+    static String LANCAMENTO_API = "/api/lancamentos";
+
+    @Autowired
+    MockMvc mvc ;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @Test
+    @DisplayName("Deve exportar os lancamentos de um usuario em NDJSON")
+    public void deveExportarLancamentosEmNdjson() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        simularExportacao(usuario);
+
+        //acao
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(LANCAMENTO_API.concat("/exportacao?usuario=1")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //verificacao
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"descricao\":\"salario\",\"mes\":1,\"ano\":2021,\"usuario\":1,\"valor\":10,\"dataCadastro\":null,\"tipo\":\"RECEITA\",\"status\":\"EFETIVADO\"}\n" +
+                        "{\"id\":2,\"descricao\":\"aluguel, agua\",\"mes\":2,\"ano\":2021,\"usuario\":1,\"valor\":10,\"dataCadastro\":null,\"tipo\":\"RECEITA\",\"status\":\"EFETIVADO\"}"));
+    }
+
+    @Test
+    @DisplayName("Deve exportar os lancamentos de um usuario em CSV")
+    public void deveExportarLancamentosEmCsv() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        simularExportacao(usuario);
+
+        //acao
+        MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(LANCAMENTO_API.concat("/exportacao?usuario=1&formato=csv")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //verificacao
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(
+                        "id,descricao,mes,ano,usuario,valor,dataCadastro,tipo,status\n" +
+                        "1,salario,1,2021,1,10,,RECEITA,EFETIVADO\n" +
+                        "2,\"aluguel, agua\",2,2021,1,10,,RECEITA,EFETIVADO\n"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request ao exportar em formato desconhecido")
+    public void deveRetornarBadRequestAoExportarEmFormatoDesconhecido() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(LANCAMENTO_API.concat("/exportacao?usuario=1&formato=xml")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Deve importar lancamentos a partir de um CSV com cabecalho")
+    @SuppressWarnings("unchecked")
+    public void deveImportarLancamentosDeUmCsv() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        Mockito.when(service.importar(Mockito.anyList()))
+                .thenReturn(new ResultadoImportacao(2, 1, List.of(new ResultadoImportacao.Erro(2, "Informe um Mês válido."))));
+        String csv = "descricao,mes,ano,valor,tipo\n" +
+                "\"mercado, feira\",3,2021,12.50,despesa\n" +
+                "salario,x,2021,100,RECEITA\n";
+
+        //acao
+        mvc.perform(MockMvcRequestBuilders.post(LANCAMENTO_API.concat("/importacao?usuario=1"))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("importados").value(1))
+                .andExpect(jsonPath("erros[0].linha").value(2));
+
+        //verificacao
+        ArgumentCaptor<List<Lancamento>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(service).importar(captor.capture());
+        Mockito.verify(usuarioService, Mockito.times(1)).obterPorId(1L);
+        Assertions.assertThat(captor.getValue()).hasSize(2);
+        Lancamento primeiro = captor.getValue().get(0);
+        Assertions.assertThat(primeiro.getDescricao()).isEqualTo("mercado, feira");
+        Assertions.assertThat(primeiro.getValor()).isEqualByComparingTo("12.50");
+        Assertions.assertThat(primeiro.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+        Assertions.assertThat(primeiro.getUsuario()).isSameAs(usuario);
+        Assertions.assertThat(captor.getValue().get(1).getMes()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve retornar 413 ao importar mais linhas que o maximo")
+    public void deveRecusarImportacaoAcimaDoMaximo() throws Exception {
+        //cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(service.importar(Mockito.anyList()))
+                .thenThrow(new LimiteExcedidoException("A importação aceita no máximo 1 lançamentos por vez."));
+        String csv = "descricao,mes,ano,valor,tipo\n" +
+                "mercado,3,2021,12.50,DESPESA\n" +
+                "salario,3,2021,100,RECEITA\n";
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.post(LANCAMENTO_API.concat("/importacao?usuario=1"))
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().string("A importação aceita no máximo 1 lançamentos por vez."));
+    }
+
+    @Test
+    @DisplayName("Deve buscar lancamentos por texto")
+    public void deveBuscarLancamentosPorTexto() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        Mockito.when(service.buscarPorTexto(1L, "agua", 5)).thenReturn(List.of(LancamentoProjecao.de(criarLancamento(2L, "Conta de água", 2, usuario))));
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.get(LANCAMENTO_API.concat("/busca?usuario=1&texto=agua&limite=5")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("[0].id").value(2))
+                .andExpect(jsonPath("[0].descricao").value("Conta de água"))
+                .andExpect(jsonPath("[0].usuario").value(1));
+    }
+
+    @Test
+    @DisplayName("Deve efetivar os pendentes de um mes em lote")
+    public void deveAtualizarOStatusDosPendentesDeUmMes() throws Exception {
+        //cenario
+        Mockito.when(service.atualizarStatusDosPendentes(1L, 2021, 3, StatusLancamento.EFETIVADO)).thenReturn(42);
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/atualiza-status"))
+                        .contentType("application/json")
+                        .content("{\"usuario\":1,\"ano\":2021,\"mes\":3,\"status\":\"EFETIVADO\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("atualizados").value(42));
+        Mockito.verify(service, Mockito.never()).atualizarStatus(Mockito.anyCollection(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request ao atualizar status em lote sem ids nem periodo")
+    public void deveRetornarBadRequestAoAtualizarStatusEmLoteSemFiltro() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/atualiza-status"))
+                        .contentType("application/json")
+                        .content("{\"status\":\"EFETIVADO\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Deve criar as parcelas de uma recorrencia e retornar 201")
+    public void deveCriarRecorrencia() throws Exception {
+        //cenario
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(usuario));
+        Lancamento primeira = criarLancamento(1L, "notebook", 3, usuario);
+        Lancamento segunda = criarLancamento(2L, "notebook", 4, usuario);
+        primeira.setDataCadastro(LocalDate.of(2021, 3, 1));
+        Mockito.when(service.salvarRecorrencia(Mockito.any(), Mockito.eq(TipoRecorrencia.PARCELADA), Mockito.eq(2), Mockito.isNull()))
+                .thenReturn(List.of(primeira, segunda));
+
+        //acao
+        mvc.perform(MockMvcRequestBuilders.post(LANCAMENTO_API.concat("/recorrencias"))
+                        .contentType("application/json")
+                        .content("{\"descricao\":\"notebook\",\"mes\":3,\"ano\":2021,\"usuario\":1,\"valor\":20," +
+                                "\"tipo\":\"DESPESA\",\"recorrencia\":\"PARCELADA\",\"parcelas\":2}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("[0].id").value(1))
+                .andExpect(jsonPath("[0].dataCadastro").value("2021-03-01"))
+                .andExpect(jsonPath("[1].mes").value(4));
+
+        //verificacao
+        ArgumentCaptor<Lancamento> captor = ArgumentCaptor.forClass(Lancamento.class);
+        Mockito.verify(service).salvarRecorrencia(captor.capture(), Mockito.any(), Mockito.any(), Mockito.any());
+        Assertions.assertThat(captor.getValue().getValor()).isEqualByComparingTo("20");
+        Assertions.assertThat(captor.getValue().getUsuario()).isSameAs(usuario);
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request ao criar recorrencia com mes final incompleto")
+    public void deveRetornarBadRequestAoCriarRecorrenciaInvalida() throws Exception {
+        //cenario
+        Mockito.when(usuarioService.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.post(LANCAMENTO_API.concat("/recorrencias"))
+                        .contentType("application/json")
+                        .content("{\"descricao\":\"aluguel\",\"mes\":3,\"ano\":2021,\"usuario\":1,\"valor\":20," +
+                                "\"tipo\":\"DESPESA\",\"recorrencia\":\"MENSAL\",\"anoFim\":2021}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Informe um Mês final válido."));
+        Mockito.verify(service, Mockito.never()).salvarRecorrencia(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Deve editar as parcelas pendentes do grupo")
+    public void deveAtualizarGrupo() throws Exception {
+        //cenario
+        Mockito.when(service.atualizarGrupo(7L, "aluguel novo", new BigDecimal("1500.00"))).thenReturn(3);
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/grupos/7"))
+                        .contentType("application/json")
+                        .content("{\"descricao\":\"aluguel novo\",\"valor\":1500.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("atualizados").value(3));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request ao editar o grupo com valor invalido")
+    public void deveRetornarBadRequestAoAtualizarGrupoInvalido() throws Exception {
+        //cenario
+        Mockito.when(service.atualizarGrupo(Mockito.eq(7L), Mockito.any(), Mockito.any()))
+                .thenThrow(new RegraNegocioException("Informe um Valor válido."));
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/grupos/7"))
+                        .contentType("application/json")
+                        .content("{\"descricao\":\"aluguel\",\"valor\":0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Informe um Valor válido."));
+    }
+
+    @Test
+    @DisplayName("Deve cancelar as parcelas pendentes do grupo")
+    public void deveCancelarGrupo() throws Exception {
+        //cenario
+        Mockito.when(service.cancelarGrupo(7L)).thenReturn(5);
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/grupos/7/cancelamento")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("atualizados").value(5));
+    }
+
+    @Test
+    @DisplayName("Deve retornar bad request quando o cancelamento do grupo e recusado")
+    public void deveRetornarBadRequestAoCancelarGrupoRecusado() throws Exception {
+        //cenario
+        Mockito.when(service.cancelarGrupo(7L))
+                .thenThrow(new RegraNegocioException("Os lançamentos foram alterados por outra operação. Tente novamente."));
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.put(LANCAMENTO_API.concat("/grupos/7/cancelamento")))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Os lançamentos foram alterados por outra operação. Tente novamente."));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void simularExportacao(Usuario usuario) {
+        Mockito.doAnswer(invocacao -> {
+            Consumer<LancamentoProjecao> consumidor = invocacao.getArgument(1);
+            consumidor.accept(LancamentoProjecao.de(criarLancamento(1L, "salario", 1, usuario)));
+            consumidor.accept(LancamentoProjecao.de(criarLancamento(2L, "aluguel, agua", 2, usuario)));
+            return null;
+        }).when(service).exportar(Mockito.eq(1L), Mockito.any(Consumer.class));
+    }
+
+    private Lancamento criarLancamento(Long id, String descricao, int mes, Usuario usuario) {
+        return Lancamento.builder().id(id).ano(2021).mes(mes).descricao(descricao).valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.RECEITA).status(StatusLancamento.EFETIVADO).usuario(usuario).build();
+    }
+}
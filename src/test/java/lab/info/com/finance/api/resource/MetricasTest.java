@@ -0,0 +1,50 @@
+package lab.info.com.finance.api.resource;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class MetricasTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    @DisplayName("Deve expor no formato do Prometheus a excecao tratada por um endpoint que responde 400")
+    public void deveExporExcecaoTratadaPeloEndpoint() throws Exception {
+        //cenario
+        String json = "{\"email\": \"metricas-inexistente@email.com\", \"senha\": \"123\"}";
+        mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/autenticar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //acao / verificacao
+        mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(Matchers.allOf(
+                        Matchers.matchesPattern("(?s).*http_server_requests_seconds_count\\{[^}]*exception=\"ErroAutenticacao\"[^}]*outcome=\"CLIENT_ERROR\"[^}]*uri=\"/api/usuarios/autenticar\".*"),
+                        Matchers.matchesPattern("(?s).*finance_servico_seconds_count\\{[^}]*class=\"lab.info.com.finance.service.impl.UsuarioServiceImpl\"[^}]*exception=\"ErroAutenticacao\"[^}]*method=\"autenticar\".*"),
+                        Matchers.containsString("hibernate_query_executions_total"),
+                        Matchers.containsString("hibernate_entities_loads_total"),
+                        Matchers.containsString("hikaricp_connections_pending{application=\"finance\",pool=\"finance\""))));
+    }
+}
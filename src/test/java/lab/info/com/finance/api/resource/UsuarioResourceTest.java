@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lab.info.com.finance.api.dto.UsuarioDTO;
 import lab.info.com.finance.exceptions.RegraNegocioException;
 import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.service.AgregacaoService;
+import lab.info.com.finance.service.FechamentoService;
 import lab.info.com.finance.service.LancamentoService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -42,6 +44,12 @@ public class UsuarioResourceTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    FechamentoService fechamentoService;
+
+    @MockBean
+    AgregacaoService agregacaoService;
+
     @Test
     @DisplayName("Deve criar um usuario com sucesso.")
     public void deveAutenticarUmUsuario() throws Exception {
@@ -0,0 +1,87 @@
+package lab.info.com.finance.config;
+
+import jakarta.servlet.http.Cookie;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "finance.datasource.replicas[0].url=" + RoteamentoDataSourceTest.URL_REPLICA,
+        "finance.datasource.leitura-apos-escrita=30s"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RoteamentoDataSourceTest {
+
+    // uma segunda base em memoria faz o papel da replica; como nada replica para ela, o que estiver
+    // so no primario mostra de qual base a leitura veio
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS fin";
+
+    static JdbcTemplate replica;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @BeforeAll
+    static void criarReplica() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL_REPLICA, "sa", "password");
+        Flyway.configure().dataSource(dataSource).schemas("FIN").defaultSchema("FIN")
+                .locations("classpath:db/migration").load().migrate();
+        replica = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    @DisplayName("Deve ler da replica e, logo apos uma escrita, ler do primario quem enviar o cookie")
+    public void deveLerDoPrimarioAposEscrita() throws Exception {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("replica@email.com").senha("senha").build());
+        replica.update("insert into fin.usuario (id, nome, email, senha) values (?, ?, ?, ?)",
+                usuario.getId(), usuario.getNome(), usuario.getEmail(), usuario.getSenha());
+        String json = "{\"descricao\": \"mercado\", \"mes\": 1, \"ano\": 2021, \"valor\": 10, \"tipo\": \"DESPESA\", "
+                + "\"usuario\": " + usuario.getId() + "}";
+
+        //acao
+        MvcResult escrita = mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        //verificacao
+        Cookie cookie = escrita.getResponse().getCookie(RoteamentoDataSource.COOKIE_ESCRITA);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(30);
+
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString()).cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+}
@@ -0,0 +1,76 @@
+package lab.info.com.finance.model.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Confere no plano de execucao que as consultas dos repositorios usam os indices criados pelas migracoes.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class IndicesTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("findByEmail e existsByEmail devem usar o indice unico de email")
+    public void deveUsarOIndiceDeEmail() {
+        Assertions.assertThat(plano("select u.id, u.email, u.nome, u.senha from fin.usuario u where u.email = 'usuario@gmail.com'"))
+                .contains("UX_USUARIO_EMAIL");
+        Assertions.assertThat(plano("select u.id from fin.usuario u where u.email = 'usuario@gmail.com' fetch first 1 rows only"))
+                .contains("UX_USUARIO_EMAIL");
+    }
+
+    @Test
+    @DisplayName("O saldo por usuario deve ser resolvido pelo indice (id_usuario, status, tipo, valor)")
+    public void deveUsarOIndiceDeSaldo() {
+        Assertions.assertThat(plano("select sum(l.valor) from fin.lancamento l " +
+                        "where l.id_usuario = 1 and l.tipo = 'RECEITA' and l.status = 'EFETIVADO'"))
+                .contains("IX_LANCAMENTO_USUARIO_STATUS_TIPO");
+        Assertions.assertThat(plano("select coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0) " +
+                        "from fin.lancamento l where l.id_usuario = 1 and l.status = 'EFETIVADO'"))
+                .contains("IX_LANCAMENTO_USUARIO_STATUS_TIPO");
+    }
+
+    @Test
+    @DisplayName("A busca por usuario e periodo e a paginacao por cursor devem usar o indice (id_usuario, ano, mes, id)")
+    public void deveUsarOIndiceDePeriodo() {
+        // com a tabela vazia o H2 empata o custo entre os indices que comecam por id_usuario (inclusive o da FK);
+        // com linhas de varios usuarios e periodos, e a estatistica do analyze, o indice de periodo e o mais seletivo.
+        // O analyze confirma a transacao, entao as linhas sao apagadas no final
+        jdbcTemplate.update("insert into fin.usuario (id, nome, email, senha) " +
+                "select 900000 + x, 'usuario', 'usuario' || x || '@indices.com', 'senha' from system_range(1, 10)");
+        jdbcTemplate.update("insert into fin.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status) " +
+                "select 900000 + x, 'lancamento', mod(x, 12) + 1, 2020 + mod(x, 5), 900001 + mod(x, 10), 10, 'RECEITA', 'PENDENTE' " +
+                "from system_range(1, 2000)");
+        try {
+            jdbcTemplate.execute("analyze table fin.lancamento");
+
+            Assertions.assertThat(plano("select l.* from fin.lancamento l where l.id_usuario = 900001 and l.ano = 2021 and l.mes = 1"))
+                    .contains("IX_LANCAMENTO_USUARIO_PERIODO");
+            Assertions.assertThat(plano("select l.* from fin.lancamento l where l.id_usuario = 900001 and l.ano >= 2021 " +
+                            "and (l.ano > 2021 or (l.ano = 2021 and l.mes > 1) or (l.ano = 2021 and l.mes = 1 and l.id > 10)) " +
+                            "order by l.ano, l.mes, l.id fetch first 51 rows only"))
+                    .contains("IX_LANCAMENTO_USUARIO_PERIODO");
+        } finally {
+            jdbcTemplate.update("delete from fin.lancamento where id_usuario between 900001 and 900010");
+            jdbcTemplate.update("delete from fin.usuario where id between 900001 and 900010");
+            jdbcTemplate.execute("analyze table fin.lancamento");
+        }
+    }
+
+    private String plano(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toUpperCase();
+    }
+}
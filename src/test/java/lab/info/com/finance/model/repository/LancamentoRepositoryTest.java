@@ -1,10 +1,15 @@
 package lab.info.com.finance.model.repository;
 
+import lab.info.com.finance.ContadorDeConsultas;
+import lab.info.com.finance.ContarConsultas;
 import lab.info.com.finance.model.entity.Lancamento;
 import lab.info.com.finance.model.entity.Usuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.CursorLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,12 +20,17 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import org.springframework.data.domain.Example;
+
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContarConsultas
 public class LancamentoRepositoryTest {
 
     @Autowired
@@ -99,10 +109,72 @@ public class LancamentoRepositoryTest {
         Lancamento lancamento = criarLancamento();
         lancamento.setUsuario(usuario);
         entityManager.persist(lancamento);
+        entityManager.flush();
+        ContadorDeConsultas.zerar();
         //acao
         BigDecimal saldo = repository.obterSaldoPorUsuario(lancamento.getUsuario().getId(), TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
         //verificacao
         Assertions.assertThat(saldo).isEqualTo(BigDecimal.valueOf(10,2));
+        ContadorDeConsultas.verificar(1);
+    }
+
+    @Test
+    @DisplayName("Deve paginar os lancamentos de um usuario por cursor na ordem (ano, mes, id)")
+    public void devePaginarLancamentosPorCursor(){
+        //cenario
+        Usuario usuario = criarUsuario();
+        entityManager.persist(usuario);
+        int[][] periodos = {{2022, 3}, {2021, 12}, {2022, 1}, {2021, 12}, {2022, 3}};
+        for (int[] periodo : periodos) {
+            Lancamento lancamento = criarLancamento();
+            lancamento.setUsuario(usuario);
+            lancamento.setAno(periodo[0]);
+            lancamento.setMes(periodo[1]);
+            entityManager.persist(lancamento);
+        }
+        Example<Lancamento> example = Example.of(Lancamento.builder().usuario(usuario).build());
+        entityManager.flush();
+        ContadorDeConsultas.zerar();
+
+        //acao
+        List<LancamentoProjecao> primeira = repository.buscarPagina(example, null, 3);
+        List<LancamentoProjecao> segunda = repository.buscarPagina(example, CursorLancamento.depoisDe(primeira.get(2)), 3);
+
+        //verificacao
+        ContadorDeConsultas.verificar(2);
+        Assertions.assertThat(primeira).extracting(LancamentoProjecao::ano, LancamentoProjecao::mes)
+                .containsExactly(Tuple.tuple(2021, 12), Tuple.tuple(2021, 12), Tuple.tuple(2022, 1));
+        Assertions.assertThat(primeira.get(0).id()).isLessThan(primeira.get(1).id());
+        Assertions.assertThat(primeira).extracting(LancamentoProjecao::idUsuario).containsOnly(usuario.getId());
+        Assertions.assertThat(segunda).extracting(LancamentoProjecao::ano, LancamentoProjecao::mes)
+                .containsExactly(Tuple.tuple(2022, 3), Tuple.tuple(2022, 3));
+    }
+
+    @Test
+    @DisplayName("Deve percorrer os lancamentos de um usuario em stream ordenado")
+    public void devePercorrerOsLancamentosDeUmUsuarioEmStream(){
+        //cenario
+        Usuario usuario = criarUsuario();
+        entityManager.persist(usuario);
+        for (int mes = 3; mes >= 1; mes--) {
+            Lancamento lancamento = criarLancamento();
+            lancamento.setUsuario(usuario);
+            lancamento.setMes(mes);
+            entityManager.persist(lancamento);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ContadorDeConsultas.zerar();
+
+        //acao
+        List<Integer> meses;
+        try (Stream<LancamentoProjecao> lancamentos = repository.streamPorUsuario(usuario.getId())) {
+            meses = lancamentos.map(LancamentoProjecao::mes).toList();
+        }
+
+        //verificacao
+        Assertions.assertThat(meses).containsExactly(1, 2, 3);
+        ContadorDeConsultas.verificar(1);
     }
 
     private Lancamento criarLancamento() {
@@ -0,0 +1,51 @@
+package lab.info.com.finance.model.valor;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class DinheiroTest {
+
+    @Test
+    @DisplayName("Deve converter entre BigDecimal e centavos sem arredondar")
+    public void deveConverterSemPerda() {
+        //acao / verificacao
+        Assertions.assertThat(Dinheiro.centavos(new BigDecimal("187.45"))).isEqualTo(18745L);
+        Assertions.assertThat(Dinheiro.centavos(new BigDecimal("10"))).isEqualTo(1000L);
+        Assertions.assertThat(Dinheiro.centavos(new BigDecimal("0.500"))).isEqualTo(50L);
+        Assertions.assertThat(Dinheiro.decimal(-18745L)).isEqualTo(new BigDecimal("-187.45"));
+        Assertions.assertThatThrownBy(() -> Dinheiro.centavos(new BigDecimal("0.005")))
+                .isInstanceOf(ArithmeticException.class);
+
+        Assertions.assertThat(Dinheiro.representavel(new BigDecimal("99999999999999.99"))).isTrue();
+        Assertions.assertThat(Dinheiro.representavel(new BigDecimal("100000000000000"))).isFalse();
+        Assertions.assertThat(Dinheiro.representavel(new BigDecimal("1E+3"))).isTrue();
+        Assertions.assertThat(Dinheiro.representavel(new BigDecimal("1.001"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve somar e subtrair em centavos acusando estouro")
+    public void deveSomarComVerificacaoDeEstouro() {
+        //acao / verificacao
+        Assertions.assertThat(Dinheiro.somar(10_000, 2_550)).isEqualTo(12_550L);
+        Assertions.assertThat(Dinheiro.subtrair(10_000, 2_999)).isEqualTo(7_001L);
+        Assertions.assertThatThrownBy(() -> Dinheiro.somar(Long.MAX_VALUE, 1))
+                .isInstanceOf(ArithmeticException.class);
+        Assertions.assertThatThrownBy(() -> Dinheiro.negar(Long.MIN_VALUE))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Deve dividir o total em partes que somam exatamente o total")
+    public void deveDividirSemPerderCentavos() {
+        //acao / verificacao
+        Assertions.assertThat(Dinheiro.dividir(10_000, 3)).containsExactly(3_334, 3_333, 3_333);
+        Assertions.assertThat(Dinheiro.dividir(10_000, 4)).containsExactly(2_500, 2_500, 2_500, 2_500);
+        Assertions.assertThat(Dinheiro.dividir(2, 3)).containsExactly(1, 1, 0);
+        Assertions.assertThat(Dinheiro.dividir(-10_000, 3)).containsExactly(-3_333, -3_333, -3_334);
+        Assertions.assertThatThrownBy(() -> Dinheiro.dividir(100, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.DimensaoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.impl.AgregacaoServiceImpl;
+import lab.info.com.finance.service.projecao.ProjecaoColunar;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class AgregacaoServiceTest {
+
+    @Autowired
+    AgregacaoService agregacaoService;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    FechamentoService fechamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Deve agregar pelas colunas em cache e mante-las iguais aos totais depois de cada escrita")
+    public void deveManterAsColunasAtualizadasNasEscritas() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("agregacao@email.com").senha("senha").build());
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, 2021, 1, TipoLancamento.RECEITA, "100.50"));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, 2021, 1, TipoLancamento.DESPESA, "30.25"));
+        lancamentoService.salvar(criarLancamento(usuario, 2022, 3, TipoLancamento.DESPESA, "7.00"));
+        Set<DimensaoLancamento> todas = EnumSet.allOf(DimensaoLancamento.class);
+        Assertions.assertThat(agregacaoService.agregar(usuario.getId(), FiltroAgregacao.TODOS, todas)).hasSize(3);
+
+        //acao
+        lancamentoService.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO);
+        despesa.setMes(2);
+        despesa.setValor(new BigDecimal("31.25"));
+        lancamentoService.atualizar(despesa);
+        lancamentoService.importar(new ArrayList<>(List.of(criarLancamento(usuario, 2022, 3, TipoLancamento.DESPESA, "3.00"))));
+        lancamentoService.deletar(lancamentoService.salvar(criarLancamento(usuario, 2022, 4, TipoLancamento.RECEITA, "1.00")));
+
+        //verificacao
+        List<GrupoLancamentos> grupos = agregacaoService.agregar(usuario.getId(), FiltroAgregacao.TODOS, todas);
+        List<TotalPeriodo> totais = fechamentoService.obterTotaisMensais(usuario.getId());
+        Assertions.assertThat(grupos).extracting(GrupoLancamentos::ano, GrupoLancamentos::mes, GrupoLancamentos::tipo,
+                        GrupoLancamentos::status, GrupoLancamentos::quantidade, GrupoLancamentos::valor)
+                .containsExactlyInAnyOrderElementsOf(totais.stream()
+                        .map(total -> Assertions.tuple(total.ano(), total.mes(), total.tipo(), total.status(), total.quantidade(), total.valor()))
+                        .toList());
+        Assertions.assertThat(grupos).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Deve agrupar e filtrar por qualquer combinacao de dimensoes")
+    public void deveAgruparEFiltrar() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("agregacao-filtro@email.com").senha("senha").build());
+        lancamentoService.salvar(criarLancamento(usuario, 2021, 1, TipoLancamento.RECEITA, "100.00"));
+        lancamentoService.salvar(criarLancamento(usuario, 2021, 5, TipoLancamento.DESPESA, "30.00"));
+        lancamentoService.salvar(criarLancamento(usuario, 2022, 5, TipoLancamento.DESPESA, "12.34"));
+        lancamentoService.salvar(criarLancamento(usuario, 2022, 7, TipoLancamento.DESPESA, "0.66"));
+
+        //acao
+        List<GrupoLancamentos> porTipo = agregacaoService.agregar(usuario.getId(), FiltroAgregacao.TODOS,
+                EnumSet.of(DimensaoLancamento.TIPO));
+        List<GrupoLancamentos> despesasPorAno = agregacaoService.agregar(usuario.getId(),
+                new FiltroAgregacao(null, null, TipoLancamento.DESPESA, null), EnumSet.of(DimensaoLancamento.ANO));
+        List<GrupoLancamentos> maioPorAno = agregacaoService.agregar(usuario.getId(),
+                new FiltroAgregacao(null, 5, null, StatusLancamento.PENDENTE), EnumSet.of(DimensaoLancamento.ANO, DimensaoLancamento.MES));
+        List<GrupoLancamentos> total = agregacaoService.agregar(usuario.getId(), FiltroAgregacao.TODOS, Set.of());
+
+        //verificacao
+        Assertions.assertThat(porTipo).containsExactly(
+                new GrupoLancamentos(null, null, TipoLancamento.RECEITA, null, 1, new BigDecimal("100.00")),
+                new GrupoLancamentos(null, null, TipoLancamento.DESPESA, null, 3, new BigDecimal("43.00")));
+        Assertions.assertThat(despesasPorAno).containsExactly(
+                new GrupoLancamentos(2021, null, null, null, 1, new BigDecimal("30.00")),
+                new GrupoLancamentos(2022, null, null, null, 2, new BigDecimal("13.00")));
+        Assertions.assertThat(maioPorAno).containsExactly(
+                new GrupoLancamentos(2021, 5, null, null, 1, new BigDecimal("30.00")),
+                new GrupoLancamentos(2022, 5, null, null, 1, new BigDecimal("12.34")));
+        Assertions.assertThat(total).containsExactly(new GrupoLancamentos(null, null, null, null, 4, new BigDecimal("143.00")));
+    }
+
+    @Test
+    @DisplayName("Deve agrupar no banco com a leitura em memoria desligada, com o mesmo resultado das colunas")
+    public void deveAgruparNoBancoSemLeituraEmMemoria() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("agregacao-banco@email.com").senha("senha").build());
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, 2021, 1, TipoLancamento.RECEITA, "100.00"));
+        lancamentoService.salvar(criarLancamento(usuario, 2021, 5, TipoLancamento.DESPESA, "30.00"));
+        lancamentoService.salvar(criarLancamento(usuario, 2022, 5, TipoLancamento.DESPESA, "12.34"));
+        lancamentoService.salvar(criarLancamento(usuario, 2022, 7, TipoLancamento.DESPESA, "0.66"));
+        lancamentoService.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO);
+        JornalLancamentoService jornalDesligado = Mockito.mock(JornalLancamentoService.class);
+        ProjecaoColunar colunasNaoUsadas = Mockito.mock(ProjecaoColunar.class);
+        AgregacaoService noBanco = new AgregacaoServiceImpl(lancamentoRepository, jornalDesligado, colunasNaoUsadas, transactionManager);
+        List<Set<DimensaoLancamento>> combinacoes = List.of(Set.of(), EnumSet.of(DimensaoLancamento.TIPO),
+                EnumSet.of(DimensaoLancamento.ANO, DimensaoLancamento.STATUS), EnumSet.allOf(DimensaoLancamento.class));
+        FiltroAgregacao despesas = new FiltroAgregacao(null, null, TipoLancamento.DESPESA, null);
+
+        //acao / verificacao
+        for (Set<DimensaoLancamento> dimensoes : combinacoes) {
+            Assertions.assertThat(noBanco.agregar(usuario.getId(), FiltroAgregacao.TODOS, dimensoes))
+                    .isEqualTo(agregacaoService.agregar(usuario.getId(), FiltroAgregacao.TODOS, dimensoes));
+            Assertions.assertThat(noBanco.agregar(usuario.getId(), despesas, dimensoes))
+                    .isEqualTo(agregacaoService.agregar(usuario.getId(), despesas, dimensoes));
+        }
+        Mockito.verifyNoInteractions(colunasNaoUsadas);
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, int ano, int mes, TipoLancamento tipo, String valor) {
+        return Lancamento.builder().ano(ano).mes(mes).descricao("extrato").valor(new BigDecimal(valor))
+                .tipo(tipo).usuario(usuario).build();
+    }
+}
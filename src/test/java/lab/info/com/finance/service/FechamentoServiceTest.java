@@ -0,0 +1,195 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.SaldoMensal;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.repository.FechamentoRepository;
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.model.repository.TotalFechamentoRepository;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.impl.FechamentoServiceImpl;
+import lab.info.com.finance.service.projecao.ProjecaoTotaisMensais;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class FechamentoServiceTest {
+
+    @Autowired
+    FechamentoService fechamentoService;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    FechamentoRepository fechamentoRepository;
+
+    @Autowired
+    TotalFechamentoRepository totalFechamentoRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Test
+    @DisplayName("Deve congelar os totais do mes fechado e somar a eles apenas os meses abertos")
+    public void deveCalcularOSaldoAPartirDoFechamento() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("fechamento@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.RECEITA, 100));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.DESPESA, 30));
+        Lancamento cancelada = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.DESPESA, 5));
+        Lancamento aberta = lancamentoService.salvar(criarLancamento(usuario, 3, TipoLancamento.DESPESA, 20));
+        lancamentoService.atualizarStatus(List.of(receita.getId(), despesa.getId(), aberta.getId()), StatusLancamento.EFETIVADO);
+        lancamentoService.atualizarStatus(cancelada.getId(), StatusLancamento.CANCELADO);
+
+        //acao
+        fechamentoService.fechar(usuario.getId(), 2021, 2);
+
+        //verificacao
+        Assertions.assertThat(fechamentoService.obterUltimoPeriodoFechado(usuario.getId())).contains(YearMonth.of(2021, 2));
+        Assertions.assertThat(lancamentoService.recalcularSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("50");
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("50");
+
+        List<TotalPeriodo> totais = fechamentoService.obterTotaisMensais(usuario.getId());
+        Assertions.assertThat(totais).extracting(TotalPeriodo::mes, TotalPeriodo::tipo, TotalPeriodo::status, TotalPeriodo::quantidade)
+                .containsExactly(
+                        Assertions.tuple(1, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, 1L),
+                        Assertions.tuple(1, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 1L),
+                        Assertions.tuple(1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1L),
+                        Assertions.tuple(3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar inclusao, alteracao, troca de status e remocao em mes fechado")
+    public void deveRejeitarAlteracoesEmMesFechado() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("fechamento-bloqueio@email.com"));
+        Lancamento fechado = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.RECEITA, 100));
+        Lancamento aberto = lancamentoService.salvar(criarLancamento(usuario, 2, TipoLancamento.RECEITA, 10));
+        lancamentoService.atualizarStatus(fechado.getId(), StatusLancamento.EFETIVADO);
+        fechamentoService.fechar(usuario.getId(), 2021, 1);
+
+        //acao / verificacao
+        Assertions.assertThatThrownBy(() -> lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.DESPESA, 10)))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("O período informado já está fechado.");
+        Assertions.assertThatThrownBy(() -> lancamentoService.atualizarStatus(fechado.getId(), StatusLancamento.CANCELADO))
+                .isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThatThrownBy(() -> lancamentoService.deletar(fechado))
+                .isInstanceOf(RegraNegocioException.class);
+
+        // mover um lancamento para dentro ou para fora do mes fechado tambem altera os totais congelados
+        aberto.setMes(1);
+        Assertions.assertThatThrownBy(() -> lancamentoService.atualizar(aberto))
+                .isInstanceOf(RegraNegocioException.class);
+        fechado.setMes(2);
+        Assertions.assertThatThrownBy(() -> lancamentoService.atualizar(fechado))
+                .isInstanceOf(RegraNegocioException.class);
+
+        List<Lancamento> importacao = new ArrayList<>(List.of(
+                criarLancamento(usuario, 1, TipoLancamento.DESPESA, 10),
+                criarLancamento(usuario, 2, TipoLancamento.DESPESA, 10)));
+        Assertions.assertThat(lancamentoService.importar(importacao).erros())
+                .extracting(erro -> erro.linha())
+                .containsExactly(1);
+        Assertions.assertThat(lancamentoService.recalcularSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+    }
+
+    @Test
+    @DisplayName("Nao deve fechar mes com lancamentos pendentes, o mes corrente ou um mes ja fechado")
+    public void naoDeveFecharPeriodoInvalido() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("fechamento-invalido@email.com"));
+        lancamentoService.salvar(criarLancamento(usuario, 3, TipoLancamento.DESPESA, 10));
+        YearMonth atual = YearMonth.now();
+
+        //acao / verificacao
+        Assertions.assertThatThrownBy(() -> fechamentoService.fechar(usuario.getId(), 2021, 3))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Existem lançamentos pendentes no período a fechar.");
+        Assertions.assertThatThrownBy(() -> fechamentoService.fechar(usuario.getId(), atual.getYear(), atual.getMonthValue()))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Só é possível fechar meses já encerrados.");
+
+        fechamentoService.fechar(usuario.getId(), 2021, 2);
+        Assertions.assertThatThrownBy(() -> fechamentoService.fechar(usuario.getId(), 2021, 1))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("O período informado já está fechado.");
+    }
+
+    @Test
+    @DisplayName("Deve acumular o saldo efetivado mes a mes, incluindo meses sem lancamentos")
+    public void deveMontarAEvolucaoDoSaldo() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("fechamento-evolucao@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.RECEITA, 100));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.DESPESA, 30));
+        Lancamento aberta = lancamentoService.salvar(criarLancamento(usuario, 3, TipoLancamento.DESPESA, 20));
+        lancamentoService.salvar(criarLancamento(usuario, 3, TipoLancamento.RECEITA, 5));
+        lancamentoService.atualizarStatus(List.of(receita.getId(), despesa.getId(), aberta.getId()), StatusLancamento.EFETIVADO);
+        fechamentoService.fechar(usuario.getId(), 2021, 1);
+
+        // o mesmo servico lendo do banco, sem as projecoes em memoria
+        FechamentoService peloBanco = new FechamentoServiceImpl(fechamentoRepository, totalFechamentoRepository,
+                lancamentoRepository, Mockito.mock(JornalLancamentoService.class), new ProjecaoTotaisMensais());
+
+        //acao
+        List<SaldoMensal> evolucao = fechamentoService.obterEvolucaoSaldo(usuario.getId(), YearMonth.of(2020, 12), YearMonth.of(2021, 4));
+        List<SaldoMensal> aPartirDeFevereiro = fechamentoService.obterEvolucaoSaldo(usuario.getId(), YearMonth.of(2021, 2), YearMonth.of(2021, 3));
+        List<SaldoMensal> aPartirDeMarco = peloBanco.obterEvolucaoSaldo(usuario.getId(), YearMonth.of(2021, 3), YearMonth.of(2021, 4));
+
+        //verificacao
+        Assertions.assertThat(evolucao).containsExactly(
+                new SaldoMensal(2020, 12, new BigDecimal("0.00"), new BigDecimal("0.00")),
+                new SaldoMensal(2021, 1, new BigDecimal("70.00"), new BigDecimal("70.00")),
+                new SaldoMensal(2021, 2, new BigDecimal("0.00"), new BigDecimal("70.00")),
+                new SaldoMensal(2021, 3, new BigDecimal("-20.00"), new BigDecimal("50.00")),
+                new SaldoMensal(2021, 4, new BigDecimal("0.00"), new BigDecimal("50.00")));
+        Assertions.assertThat(aPartirDeFevereiro).containsExactly(
+                new SaldoMensal(2021, 2, new BigDecimal("0.00"), new BigDecimal("70.00")),
+                new SaldoMensal(2021, 3, new BigDecimal("-20.00"), new BigDecimal("50.00")));
+        Assertions.assertThat(aPartirDeMarco).containsExactly(
+                new SaldoMensal(2021, 3, new BigDecimal("-20.00"), new BigDecimal("50.00")),
+                new SaldoMensal(2021, 4, new BigDecimal("0.00"), new BigDecimal("50.00")));
+        // periodos antes, sobre e depois do mes fechado dao o mesmo resultado pelos dois caminhos
+        for (int de = 0; de < 5; de++) {
+            for (int ate = de; ate < 5; ate++) {
+                YearMonth inicio = YearMonth.of(2020, 12).plusMonths(de);
+                YearMonth fim = YearMonth.of(2020, 12).plusMonths(ate);
+                Assertions.assertThat(peloBanco.obterEvolucaoSaldo(usuario.getId(), inicio, fim))
+                        .as("%s a %s", inicio, fim)
+                        .isEqualTo(fechamentoService.obterEvolucaoSaldo(usuario.getId(), inicio, fim));
+            }
+        }
+        Assertions.assertThatThrownBy(() -> fechamentoService.obterEvolucaoSaldo(usuario.getId(), YearMonth.of(2021, 3), YearMonth.of(2021, 2)))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Informe um período válido.");
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, int mes, TipoLancamento tipo, int valor) {
+        return Lancamento.builder().ano(2021).mes(mes).descricao("lancamento qualquer").valor(BigDecimal.valueOf(valor))
+                .tipo(tipo).usuario(usuario).build();
+    }
+
+    private Usuario criarUsuario(String email) {
+        return Usuario.builder().nome("usuario").email(email).senha("senha").build();
+    }
+}
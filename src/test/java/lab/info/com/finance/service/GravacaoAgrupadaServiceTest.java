@@ -0,0 +1,138 @@
+package lab.info.com.finance.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lab.info.com.finance.exceptions.CapacidadeExcedidaException;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.impl.GravacaoAgrupadaServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "finance.lancamentos.gravacao-agrupada.habilitada=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class GravacaoAgrupadaServiceTest {
+
+    @Autowired
+    GravacaoAgrupadaService gravacaoAgrupada;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    FechamentoService fechamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    @DisplayName("Deve gravar os lancamentos enfileirados e completar cada um com o id apos o commit")
+    public void deveGravarOsLancamentosEnfileirados() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("gravacao-agrupada@email.com").senha("senha").build());
+
+        //acao
+        List<CompletableFuture<Lancamento>> gravados = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            gravados.add(gravacaoAgrupada.enfileirar(criarLancamento(usuario, 1 + i % 3, i)));
+        }
+        List<Lancamento> lancamentos = gravados.stream().map(CompletableFuture::join).toList();
+
+        //verificacao
+        Assertions.assertThat(lancamentos).extracting(Lancamento::getId).doesNotContainNull().doesNotHaveDuplicates();
+        Assertions.assertThat(lancamentoService.contarPorStatus(usuario.getId()))
+                .containsOnly(Map.entry(StatusLancamento.PENDENTE, 30L));
+    }
+
+    @Test
+    @DisplayName("Deve recusar na hora os campos invalidos e no lote o lancamento de um mes fechado")
+    public void deveValidarAntesDeEnfileirar() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("gravacao-fechado@email.com").senha("senha").build());
+        fechamentoService.fechar(usuario.getId(), 2021, 1);
+
+        //acao / verificacao
+        Assertions.assertThatThrownBy(() -> gravacaoAgrupada.enfileirar(Lancamento.builder().usuario(usuario).build()))
+                .isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThat(gravacaoAgrupada.enfileirar(criarLancamento(usuario, 1, 10)))
+                .failsWithin(Duration.ofSeconds(10))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RegraNegocioException.class);
+    }
+
+    @Test
+    @DisplayName("Deve recusar com a fila cheia enquanto o gravador esta ocupado")
+    public void deveRecusarComAFilaCheia() throws Exception {
+        //cenario
+        LancamentoService service = Mockito.mock(LancamentoService.class);
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Mockito.when(service.importar(Mockito.anyList())).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            int quantidade = invocacao.<List<Lancamento>>getArgument(0).size();
+            return new ResultadoImportacao(quantidade, quantidade, List.of());
+        });
+        GravacaoAgrupadaServiceImpl gravador = new GravacaoAgrupadaServiceImpl(service, new SimpleMeterRegistry(),
+                1, 10, Duration.ZERO);
+        gravador.start();
+
+        //acao
+        CompletableFuture<Lancamento> primeiro = gravador.enfileirar(new Lancamento());
+        gravando.await(10, TimeUnit.SECONDS);
+        CompletableFuture<Lancamento> segundo = gravador.enfileirar(new Lancamento());
+
+        //verificacao
+        Assertions.assertThatThrownBy(() -> gravador.enfileirar(new Lancamento()))
+                .isInstanceOf(CapacidadeExcedidaException.class);
+        liberar.countDown();
+        gravador.stop();
+        Assertions.assertThat(primeiro).isCompleted();
+        Assertions.assertThat(segundo).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Deve recusar o lancamento enfileirado depois de parado em vez de deixar o futuro sem resposta")
+    public void deveRecusarDepoisDeParado() {
+        //cenario
+        LancamentoService service = Mockito.mock(LancamentoService.class);
+        GravacaoAgrupadaServiceImpl gravador = new GravacaoAgrupadaServiceImpl(service, new SimpleMeterRegistry(),
+                10, 10, Duration.ZERO);
+        gravador.start();
+        gravador.stop();
+
+        //acao / verificacao
+        Assertions.assertThatThrownBy(() -> gravador.enfileirar(new Lancamento()))
+                .isInstanceOf(CapacidadeExcedidaException.class);
+        Mockito.verify(service, Mockito.never()).importar(Mockito.anyList());
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, int mes, int valor) {
+        return Lancamento.builder().ano(2021).mes(mes).descricao("extrato").valor(BigDecimal.valueOf(valor))
+                .tipo(TipoLancamento.DESPESA).usuario(usuario).build();
+    }
+}
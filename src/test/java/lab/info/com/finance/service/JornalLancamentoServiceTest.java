@@ -0,0 +1,124 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.TotalPeriodo;
+import lab.info.com.finance.model.repository.EventoLancamentoRepository;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import lab.info.com.finance.service.impl.JornalLancamentoServiceImpl;
+import lab.info.com.finance.service.projecao.ProjecaoContagemPorStatus;
+import lab.info.com.finance.service.projecao.ProjecaoSaldos;
+import lab.info.com.finance.service.projecao.ProjecaoTotaisMensais;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class JornalLancamentoServiceTest {
+
+    @Autowired
+    JornalLancamentoService jornalService;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    FechamentoService fechamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    EventoLancamentoRepository eventoRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Deve manter as projecoes iguais as consultas e reproduzi-las no replay do jornal")
+    public void deveReconstruirAsProjecoesAPartirDoJornal() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("jornal@email.com").senha("senha").build());
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.RECEITA, 100));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, 2, TipoLancamento.DESPESA, 30));
+        Lancamento removida = lancamentoService.salvar(criarLancamento(usuario, 2, TipoLancamento.DESPESA, 7));
+        lancamentoService.importar(new ArrayList<>(List.of(criarLancamento(usuario, 3, TipoLancamento.DESPESA, 5))));
+        lancamentoService.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO);
+        despesa.setMes(3);
+        despesa.setValor(BigDecimal.valueOf(40));
+        despesa.setStatus(StatusLancamento.EFETIVADO);
+        lancamentoService.atualizar(despesa);
+        lancamentoService.deletar(removida);
+        lancamentoService.atualizarStatusDosPendentes(usuario.getId(), 2021, 3, StatusLancamento.CANCELADO);
+
+        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(usuario.getId());
+        Map<StatusLancamento, Long> contagem = lancamentoService.contarPorStatus(usuario.getId());
+        List<TotalPeriodo> totais = fechamentoService.obterTotaisMensais(usuario.getId());
+
+        //acao
+        // o replay so roda na subida; uma instancia nova, com projecoes vazias, faz o mesmo que a aplicacao ao subir
+        ProjecaoSaldos saldos = new ProjecaoSaldos();
+        ProjecaoContagemPorStatus contagens = new ProjecaoContagemPorStatus();
+        ProjecaoTotaisMensais totaisMensais = new ProjecaoTotaisMensais();
+        JornalLancamentoServiceImpl replay = new JornalLancamentoServiceImpl(eventoRepository,
+                List.of(saldos, contagens, totaisMensais), transactionManager, true);
+        replay.afterSingletonsInstantiated();
+
+        //verificacao
+        Assertions.assertThat(jornalService.emMemoria()).isTrue();
+        Assertions.assertThat(replay.emMemoria()).isTrue();
+        Assertions.assertThat(saldo).isEqualByComparingTo(lancamentoService.recalcularSaldoPorUsuario(usuario.getId()))
+                .isEqualByComparingTo("60");
+        Assertions.assertThat(contagem).containsOnly(
+                Map.entry(StatusLancamento.EFETIVADO, 2L), Map.entry(StatusLancamento.CANCELADO, 1L));
+        Assertions.assertThat(totais).extracting(TotalPeriodo::mes, TotalPeriodo::tipo, TotalPeriodo::status, TotalPeriodo::quantidade)
+                .containsExactly(
+                        Assertions.tuple(1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 1L),
+                        Assertions.tuple(3, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, 1L),
+                        Assertions.tuple(3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 1L));
+
+        Assertions.assertThat(saldos.obterSaldo(usuario.getId())).isEqualByComparingTo(saldo);
+        Assertions.assertThat(contagens.obterContagem(usuario.getId())).isEqualTo(contagem);
+        Assertions.assertThat(totaisMensais.obterTotais(usuario.getId())).isEqualTo(totais);
+    }
+
+    @Test
+    @DisplayName("Nao deve reaplicar o jornal com a leitura em memoria desligada")
+    public void naoDeveReconstruirSemLeituraEmMemoria() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("jornal-desligado@email.com").senha("senha").build());
+        lancamentoService.salvar(criarLancamento(usuario, 1, TipoLancamento.RECEITA, 100));
+        ProjecaoSaldos saldos = new ProjecaoSaldos();
+        JornalLancamentoServiceImpl desligado = new JornalLancamentoServiceImpl(eventoRepository,
+                List.of(saldos), transactionManager, false);
+
+        //acao
+        desligado.afterSingletonsInstantiated();
+
+        //verificacao
+        Assertions.assertThat(desligado.emMemoria()).isFalse();
+        Assertions.assertThat(saldos.obterSaldo(usuario.getId())).isEqualByComparingTo("0");
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, int mes, TipoLancamento tipo, int valor) {
+        return Lancamento.builder().ano(2021).mes(mes).descricao("extrato").valor(BigDecimal.valueOf(valor))
+                .tipo(tipo).usuario(usuario).build();
+    }
+}
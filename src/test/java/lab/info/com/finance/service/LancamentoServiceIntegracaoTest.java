@@ -0,0 +1,295 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.ContadorDeConsultas;
+import lab.info.com.finance.ContarConsultas;
+import lab.info.com.finance.exceptions.LimiteExcedidoException;
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.enums.TipoRecorrencia;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.Pagina;
+import lab.info.com.finance.model.projection.ResultadoImportacao;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContarConsultas
+public class LancamentoServiceIntegracaoTest {
+
+    @Autowired
+    LancamentoService service;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    @DisplayName("Deve importar as linhas validas e relatar as invalidas")
+    public void deveImportarLinhasValidasERelatarInvalidas() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("importacao@email.com"));
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            lancamentos.add(criarLancamento(usuario, 1 + i % 12));
+        }
+        lancamentos.get(9).setMes(13);
+        lancamentos.get(99).setValor(BigDecimal.ZERO);
+
+        //acao
+        ResultadoImportacao resultado = service.importar(lancamentos);
+
+        //verificacao
+        Assertions.assertThat(resultado.recebidos()).isEqualTo(120);
+        Assertions.assertThat(resultado.importados()).isEqualTo(118);
+        Assertions.assertThat(resultado.erros()).containsExactly(
+                new ResultadoImportacao.Erro(10, "Informe um Mês válido."),
+                new ResultadoImportacao.Erro(100, "Informe um Valor válido."));
+        Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+        List<LancamentoProjecao> gravados = service.buscar(filtro);
+        Assertions.assertThat(gravados).hasSize(118);
+        Assertions.assertThat(gravados).allMatch(lancamento -> lancamento.status() == StatusLancamento.PENDENTE);
+    }
+
+    @Test
+    @DisplayName("Deve recusar a importacao inteira acima do maximo de linhas")
+    public void deveRecusarImportacaoAcimaDoMaximo() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("importacao-maxima@email.com"));
+        List<Lancamento> lancamentos = new ArrayList<>(Collections.nCopies(10_001, criarLancamento(usuario, 1)));
+
+        //acao
+        Throwable erro = Assertions.catchThrowable(() -> service.importar(lancamentos));
+
+        //verificacao
+        Assertions.assertThat(erro).isInstanceOf(LimiteExcedidoException.class)
+                .hasMessage("A importação aceita no máximo 10000 lançamentos por vez.");
+        Assertions.assertThat(service.buscar(Lancamento.builder().usuario(usuario).build())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve buscar lancamentos pelos termos da descricao ignorando acentos e ordenando pela relevancia")
+    public void deveBuscarLancamentosPorTexto() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("busca@email.com"));
+        Usuario outro = usuarioRepository.save(criarUsuario("busca-outro@email.com"));
+        List<Lancamento> lancamentos = new ArrayList<>();
+        for (String descricao : List.of("Conta de Água", "agua mineral", "Aluguel", "Água e esgoto, reajuste da água", "Salário")) {
+            Lancamento lancamento = criarLancamento(usuario, 1);
+            lancamento.setDescricao(descricao);
+            lancamentos.add(lancamento);
+        }
+        Lancamento deOutroUsuario = criarLancamento(outro, 1);
+        deOutroUsuario.setDescricao("Conta de agua");
+        lancamentos.add(deOutroUsuario);
+        service.importar(lancamentos);
+
+        //acao
+        List<LancamentoProjecao> encontrados = service.buscarPorTexto(usuario.getId(), "AGUA", null);
+        List<LancamentoProjecao> contaDeAgua = service.buscarPorTexto(usuario.getId(), "conta água", 10);
+
+        //verificacao
+        Assertions.assertThat(encontrados).extracting(LancamentoProjecao::descricao)
+                .containsExactly("Água e esgoto, reajuste da água", "agua mineral", "Conta de Água");
+        Assertions.assertThat(contaDeAgua).extracting(LancamentoProjecao::descricao).containsExactly("Conta de Água");
+    }
+
+    @Test
+    @DisplayName("Deve ler lancamentos sem carregar o usuario")
+    public void deveLerLancamentosSemCarregarOUsuario() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("projecao@email.com"));
+        service.importar(new ArrayList<>(List.of(criarLancamento(usuario, 1))));
+        Long id = service.buscar(Lancamento.builder().usuario(usuario).build()).get(0).id();
+
+        //acao
+        Lancamento lancamento = service.obterPorId(id).get();
+        LancamentoProjecao projecao = service.obterProjecaoPorId(id).get();
+
+        //verificacao
+        Assertions.assertThat(Hibernate.isInitialized(lancamento.getUsuario())).isFalse();
+        Assertions.assertThat(lancamento.getUsuario().getId()).isEqualTo(usuario.getId());
+        Assertions.assertThat(projecao.idUsuario()).isEqualTo(usuario.getId());
+        Assertions.assertThat(projecao.dataCadastro()).isEqualTo(LocalDate.now());
+        Assertions.assertThat(projecao.descricao()).isEqualTo("extrato");
+    }
+
+    @Test
+    @DisplayName("Deve executar um numero fixo de comandos SQL em cada operacao")
+    public void deveRespeitarOOrcamentoDeConsultas() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("orcamento@email.com"));
+        service.importar(new ArrayList<>(List.of(criarLancamento(usuario, 1), criarLancamento(usuario, 2))));
+        Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+        List<LancamentoProjecao> importados = service.buscar(filtro);
+        service.atualizarStatus(importados.get(0).id(), StatusLancamento.EFETIVADO);
+        Lancamento lancamento = service.obterPorId(importados.get(1).id()).get();
+        lancamento.setValor(BigDecimal.valueOf(20));
+
+        //acao / verificacao
+        ContadorDeConsultas.zerar();
+        BigDecimal saldo = service.obterSaldoPorUsuario(usuario.getId());
+        ContadorDeConsultas.verificar(0);
+
+        ContadorDeConsultas.zerar();
+        Pagina<LancamentoProjecao> pagina = service.buscarPagina(filtro, null, 1);
+        ContadorDeConsultas.verificar(1);
+
+        // cada escrita bloqueia o usuario (compartilhado), le o ultimo mes fechado dele, grava seus eventos no jornal
+        // e avanca a versao na linha de saldo dele, mesmo quando o saldo nao muda
+        ContadorDeConsultas.zerar();
+        service.atualizarStatus(pagina.itens().get(0).id(), StatusLancamento.CANCELADO);
+        ContadorDeConsultas.verificar(8);
+
+        ContadorDeConsultas.zerar();
+        service.atualizarStatusDosPendentes(usuario.getId(), 2021, 2, StatusLancamento.EFETIVADO);
+        ContadorDeConsultas.verificar(7);
+
+        // atualizar e deletar recebem a entidade solta: o merge/remove le a linha alem da projecao do estado anterior
+        ContadorDeConsultas.zerar();
+        service.atualizar(lancamento);
+        ContadorDeConsultas.verificar(8);
+
+        ContadorDeConsultas.zerar();
+        service.deletar(lancamento);
+        ContadorDeConsultas.verificar(8);
+
+        Assertions.assertThat(saldo).isEqualByComparingTo("-0.10");
+    }
+
+    @Test
+    @DisplayName("Deve gerar as parcelas mes a mes, virando o ano e distribuindo os centavos restantes")
+    public void deveGerarParcelas() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("parcelas@email.com"));
+        Lancamento compra = Lancamento.builder().ano(2021).mes(11).descricao("notebook").valor(new BigDecimal("1000.00"))
+                .tipo(TipoLancamento.DESPESA).usuario(usuario).build();
+
+        //acao
+        ContadorDeConsultas.zerar();
+        List<Lancamento> parcelas = service.salvarRecorrencia(compra, TipoRecorrencia.PARCELADA, 24, null);
+        List<String> insercao = ContadorDeConsultas.executadas();
+
+        //verificacao
+        Assertions.assertThat(parcelas).hasSize(24);
+        Assertions.assertThat(insercao).filteredOn(sql -> sql.startsWith("insert into fin.lancamento "))
+                .singleElement().asString().endsWith("[lote de 24]");
+        Assertions.assertThat(parcelas).extracting(Lancamento::getIdGrupo).containsOnly(parcelas.get(0).getIdGrupo()).doesNotContainNull();
+        Assertions.assertThat(parcelas.get(0)).extracting(Lancamento::getAno, Lancamento::getMes, Lancamento::getParcela, Lancamento::getValor)
+                .containsExactly(2021, 11, 1, new BigDecimal("41.67"));
+        Assertions.assertThat(parcelas.get(2)).extracting(Lancamento::getAno, Lancamento::getMes).containsExactly(2022, 1);
+        Assertions.assertThat(parcelas.get(23)).extracting(Lancamento::getAno, Lancamento::getMes, Lancamento::getParcela, Lancamento::getValor)
+                .containsExactly(2023, 10, 24, new BigDecimal("41.66"));
+        Assertions.assertThat(parcelas.stream().map(Lancamento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("1000.00");
+
+        List<LancamentoProjecao> gravadas = service.buscar(Lancamento.builder().usuario(usuario).build());
+        Assertions.assertThat(gravadas).hasSize(24);
+        Assertions.assertThat(gravadas).allMatch(parcela -> parcela.status() == StatusLancamento.PENDENTE
+                && parcela.idGrupo().equals(parcelas.get(0).getIdGrupo()));
+
+        Assertions.assertThatThrownBy(() -> service.salvarRecorrencia(compra, TipoRecorrencia.PARCELADA, 24, YearMonth.of(2023, 10)))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Informe a quantidade de parcelas ou o mês final.");
+        Assertions.assertThatThrownBy(() -> service.salvarRecorrencia(compra, TipoRecorrencia.MENSAL, 361, null))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Informe entre 1 e 360 parcelas.");
+    }
+
+    @Test
+    @DisplayName("Deve editar e cancelar as parcelas pendentes do grupo com um update cada")
+    public void deveEditarECancelarOGrupo() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("recorrencia@email.com"));
+        Lancamento salario = Lancamento.builder().ano(2021).mes(10).descricao("salario").valor(new BigDecimal("3500.00"))
+                .tipo(TipoLancamento.RECEITA).usuario(usuario).build();
+        List<Lancamento> meses = service.salvarRecorrencia(salario, TipoRecorrencia.MENSAL, null, YearMonth.of(2022, 3));
+        Long grupo = meses.get(0).getIdGrupo();
+        service.atualizarStatus(meses.get(0).getId(), StatusLancamento.EFETIVADO);
+
+        //acao
+        ContadorDeConsultas.zerar();
+        int atualizados = service.atualizarGrupo(grupo, "salario reajustado", new BigDecimal("3800.00"));
+        List<String> edicao = ContadorDeConsultas.executadas();
+        ContadorDeConsultas.zerar();
+        int cancelados = service.cancelarGrupo(grupo);
+        List<String> cancelamento = ContadorDeConsultas.executadas();
+
+        //verificacao
+        Assertions.assertThat(meses).hasSize(6);
+        Assertions.assertThat(atualizados).isEqualTo(5);
+        Assertions.assertThat(cancelados).isEqualTo(5);
+        // uma leitura das pendentes e um update do grupo inteiro, sem nada por parcela
+        for (List<String> comandos : List.of(edicao, cancelamento)) {
+            Assertions.assertThat(comandos).filteredOn(sql -> sql.contains(" from fin.lancamento ")).hasSize(1);
+            Assertions.assertThat(comandos).filteredOn(sql -> sql.startsWith("update fin.lancamento ")).singleElement()
+                    .asString().contains("where id_grupo=? and status=?");
+        }
+        List<LancamentoProjecao> gravados = service.buscar(Lancamento.builder().usuario(usuario).build());
+        Assertions.assertThat(gravados).extracting(LancamentoProjecao::mes, LancamentoProjecao::descricao, LancamentoProjecao::valor,
+                        LancamentoProjecao::status)
+                .startsWith(Assertions.tuple(10, "salario", new BigDecimal("3500.00"), StatusLancamento.EFETIVADO),
+                        Assertions.tuple(11, "salario reajustado", new BigDecimal("3800.00"), StatusLancamento.CANCELADO));
+        Assertions.assertThat(gravados.subList(1, 6)).allMatch(parcela -> parcela.status() == StatusLancamento.CANCELADO);
+        Assertions.assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("3500.00");
+        Assertions.assertThat(service.cancelarGrupo(grupo)).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve redistribuir o novo total entre as parcelas pendentes do grupo parcelado")
+    public void deveRedistribuirOValorDoGrupoParcelado() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("recorrencia-parcelada@email.com"));
+        Lancamento compra = Lancamento.builder().ano(2021).mes(10).descricao("geladeira").valor(new BigDecimal("400.00"))
+                .tipo(TipoLancamento.DESPESA).usuario(usuario).build();
+        List<Lancamento> parcelas = service.salvarRecorrencia(compra, TipoRecorrencia.PARCELADA, 4, null);
+        Long grupo = parcelas.get(0).getIdGrupo();
+        service.atualizarStatus(parcelas.get(0).getId(), StatusLancamento.EFETIVADO);
+
+        //acao
+        ContadorDeConsultas.zerar();
+        int atualizados = service.atualizarGrupo(grupo, "geladeira com desconto", new BigDecimal("200.00"));
+        List<String> edicao = ContadorDeConsultas.executadas();
+
+        //verificacao
+        Assertions.assertThat(atualizados).isEqualTo(3);
+        // valores que diferem em um centavo: um update por valor
+        Assertions.assertThat(edicao).filteredOn(sql -> sql.startsWith("update fin.lancamento ")).hasSize(2);
+        List<LancamentoProjecao> gravados = service.buscar(Lancamento.builder().usuario(usuario).build());
+        Assertions.assertThat(gravados).extracting(LancamentoProjecao::mes, LancamentoProjecao::descricao, LancamentoProjecao::valor)
+                .containsExactly(Assertions.tuple(10, "geladeira", new BigDecimal("100.00")),
+                        Assertions.tuple(11, "geladeira com desconto", new BigDecimal("66.67")),
+                        Assertions.tuple(12, "geladeira com desconto", new BigDecimal("66.67")),
+                        Assertions.tuple(1, "geladeira com desconto", new BigDecimal("66.66")));
+        Assertions.assertThat(service.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-100.00");
+        Assertions.assertThatThrownBy(() -> service.atualizarGrupo(grupo, "geladeira", new BigDecimal("0.02")))
+                .isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor de ao menos um centavo por parcela.");
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, int mes) {
+        return Lancamento.builder().ano(2021).mes(mes).descricao("extrato").valor(BigDecimal.valueOf(10, 2))
+                .tipo(TipoLancamento.DESPESA).usuario(usuario).build();
+    }
+
+    private Usuario criarUsuario(String email) {
+        return Usuario.builder().nome("usuario").email(email).senha("senha").build();
+    }
+}
@@ -5,6 +5,9 @@ import lab.info.com.finance.model.entity.Lancamento;
 import lab.info.com.finance.model.entity.Usuario;
 import lab.info.com.finance.model.enums.StatusLancamento;
 import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.CursorLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.Pagina;
 import lab.info.com.finance.model.repository.LancamentoRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
@@ -120,18 +123,76 @@ public class LancamentoServiceTest {
             //cenario
             Lancamento lancamento = criarLancamento();
             lancamento.setId(1L);
-            List<Lancamento> lista = Arrays.asList(lancamento);
-            Mockito.when(repository.findAll(Mockito.any(org.springframework.data.domain.Example.class))).thenReturn(lista);
+            List<LancamentoProjecao> lista = Arrays.asList(LancamentoProjecao.de(lancamento));
+            Mockito.when(repository.buscarProjecoes(Mockito.any(org.springframework.data.domain.Example.class))).thenReturn(lista);
 
             //acao
-            List<Lancamento> lancamentos = service.buscar(lancamento);
+            List<LancamentoProjecao> lancamentos = service.buscar(lancamento);
             //verificacao
-            Mockito.verify(repository).findAll(Mockito.any(org.springframework.data.domain.Example.class));
+            Mockito.verify(repository).buscarProjecoes(Mockito.any(org.springframework.data.domain.Example.class));
             Assertions.assertThat(lancamentos).hasSize(1);
-            Assertions.assertThat(lancamentos).contains(lancamento);
+            Assertions.assertThat(lancamentos).contains(LancamentoProjecao.de(lancamento));
 
         }
 
+        @Test
+        @DisplayName("Deve paginar lancamentos por cursor")
+        public void devePaginarLancamentosPorCursor(){
+            //cenario
+            Lancamento primeiro = criarLancamento();
+            primeiro.setId(1L);
+            Lancamento segundo = criarLancamento();
+            segundo.setId(2L);
+            Lancamento terceiro = criarLancamento();
+            terceiro.setId(3L);
+            Mockito.when(repository.buscarPagina(Mockito.any(org.springframework.data.domain.Example.class), Mockito.isNull(), Mockito.eq(3)))
+                    .thenReturn(Arrays.asList(LancamentoProjecao.de(primeiro), LancamentoProjecao.de(segundo), LancamentoProjecao.de(terceiro)));
+
+            //acao
+            Pagina<LancamentoProjecao> pagina = service.buscarPagina(criarLancamento(), null, 2);
+
+            //verificacao
+            Assertions.assertThat(pagina.itens()).containsExactly(LancamentoProjecao.de(primeiro), LancamentoProjecao.de(segundo));
+            Assertions.assertThat(CursorLancamento.decodificar(pagina.proximoCursor())).isEqualTo(new CursorLancamento(2021, 1, 2L));
+        }
+
+        @Test
+        @DisplayName("Deve retornar a ultima pagina sem cursor")
+        public void deveRetornarAUltimaPaginaSemCursor(){
+            //cenario
+            Lancamento lancamento = criarLancamento();
+            lancamento.setId(5L);
+            String cursor = new CursorLancamento(2021, 1, 4L).codificar();
+            Mockito.when(repository.buscarPagina(Mockito.any(org.springframework.data.domain.Example.class), Mockito.eq(new CursorLancamento(2021, 1, 4L)), Mockito.eq(3)))
+                    .thenReturn(Arrays.asList(LancamentoProjecao.de(lancamento)));
+
+            //acao
+            Pagina<LancamentoProjecao> pagina = service.buscarPagina(criarLancamento(), cursor, 2);
+
+            //verificacao
+            Assertions.assertThat(pagina.itens()).containsExactly(LancamentoProjecao.de(lancamento));
+            Assertions.assertThat(pagina.proximoCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Deve lançar erro ao paginar com cursor ou tamanho inválidos")
+        public void deveLancarErroAoPaginarComParametrosInvalidos(){
+            Throwable erro = Assertions.catchThrowable(() -> service.buscarPagina(criarLancamento(), "invalido", 10));
+            Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Cursor de paginação inválido.");
+            erro = Assertions.catchThrowable(() -> service.buscarPagina(criarLancamento(), null, 0));
+            Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+        }
+
+        @Test
+        @DisplayName("Deve lançar erro ao buscar por texto vazio")
+        public void naoDeveBuscarPorTextoVazio(){
+            //acao
+            Throwable erro = Assertions.catchThrowable(() -> service.buscarPorTexto(1L, "  ", null));
+            //verificacao
+            Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe o texto da busca.");
+            Mockito.verify(repository, Mockito.never()).buscarPorTexto(Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt());
+        }
+
         @Test
         @DisplayName("Deve atualizar o status de um lancamento")
         public void deveAtualizarOStatusDeUmLancamento(){
@@ -216,7 +277,10 @@ public class LancamentoServiceTest {
             lancamento.setValor(BigDecimal.ZERO);
             erro = Assertions.catchThrowable(() -> service.validar(lancamento));
             Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor válido.");
-            lancamento.setValor(BigDecimal.valueOf(1));
+            lancamento.setValor(new BigDecimal("1.005"));
+            erro = Assertions.catchThrowable(() -> service.validar(lancamento));
+            Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Valor com no máximo duas casas decimais.");
+            lancamento.setValor(new BigDecimal("1.000"));
             //teste de tipo
             erro = Assertions.catchThrowable(() -> service.validar(lancamento));
             Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um tipo de Lançamento.");
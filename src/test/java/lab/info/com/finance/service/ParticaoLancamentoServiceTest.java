@@ -0,0 +1,54 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.model.repository.LancamentoRepository;
+import lab.info.com.finance.service.impl.ParticaoLancamentoServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Year;
+import java.util.Optional;
+import java.util.Set;
+
+public class ParticaoLancamentoServiceTest {
+
+    @Test
+    @DisplayName("Deve criar as particoes dos anos seguintes e recusar so os anos sem particao")
+    public void deveCriarAsParticoesAdiantadas() {
+        //cenario
+        int atual = Year.now().getValue();
+        LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+        Mockito.when(repository.obterAnosComParticao()).thenReturn(Optional.of(Set.of(2019, atual, atual + 1, atual + 2)));
+        ParticaoLancamentoService service = new ParticaoLancamentoServiceImpl(repository, 2);
+        Assertions.assertThat(service.aceitaAno(1990)).isTrue();
+
+        //acao
+        service.criarParticoes();
+
+        //verificacao
+        Mockito.verify(repository).criarParticao(atual);
+        Mockito.verify(repository).criarParticao(atual + 1);
+        Mockito.verify(repository).criarParticao(atual + 2);
+        Mockito.verify(repository, Mockito.never()).criarParticao(atual + 3);
+        Assertions.assertThat(service.aceitaAno(2019)).isTrue();
+        Assertions.assertThat(service.aceitaAno(atual + 2)).isTrue();
+        Assertions.assertThat(service.aceitaAno(1990)).isFalse();
+        Assertions.assertThat(service.aceitaAno(atual + 3)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve aceitar qualquer ano quando a tabela nao e particionada")
+    public void deveAceitarQualquerAnoSemParticionamento() {
+        //cenario
+        LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+        Mockito.when(repository.obterAnosComParticao()).thenReturn(Optional.empty());
+        ParticaoLancamentoService service = new ParticaoLancamentoServiceImpl(repository, 2);
+
+        //acao
+        service.criarParticoes();
+
+        //verificacao
+        Assertions.assertThat(service.aceitaAno(1990)).isTrue();
+    }
+}
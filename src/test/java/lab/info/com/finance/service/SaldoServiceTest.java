@@ -0,0 +1,194 @@
+package lab.info.com.finance.service;
+
+import lab.info.com.finance.exceptions.RegraNegocioException;
+import lab.info.com.finance.model.entity.Lancamento;
+import lab.info.com.finance.model.entity.SaldoUsuario;
+import lab.info.com.finance.model.entity.Usuario;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.LancamentoProjecao;
+import lab.info.com.finance.model.projection.VersaoUsuario;
+import lab.info.com.finance.model.repository.SaldoUsuarioRepository;
+import lab.info.com.finance.model.repository.UsuarioRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SaldoServiceTest {
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Deve manter o saldo materializado ao efetivar, alterar e remover lancamentos")
+    public void deveManterOSaldoMaterializado() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("saldo@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 30));
+
+        //acao / verificacao
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+
+        lancamentoService.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+        lancamentoService.atualizarStatus(despesa, StatusLancamento.EFETIVADO);
+        Assertions.assertThat(saldoUsuarioRepository.findById(usuario.getId())).isPresent();
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("70");
+
+        despesa.setValor(BigDecimal.valueOf(50));
+        lancamentoService.atualizar(despesa);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("50");
+
+        lancamentoService.atualizarStatus(receita, StatusLancamento.CANCELADO);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-50");
+
+        lancamentoService.deletar(despesa);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+        Assertions.assertThat(lancamentoService.recalcularSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Deve manter o saldo quando a entidade passada ja esta gerenciada e alterada na transacao")
+    public void deveManterOSaldoComEntidadeGerenciada() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("gerenciada@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        //acao
+        transacao.executeWithoutResult(status -> {
+            Lancamento gerenciado = lancamentoService.obterPorId(receita.getId()).get();
+            lancamentoService.atualizarStatus(gerenciado, StatusLancamento.EFETIVADO);
+            gerenciado.setValor(BigDecimal.valueOf(150));
+            lancamentoService.atualizar(gerenciado);
+        });
+
+        //verificacao
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("150");
+        Assertions.assertThat(lancamentoService.recalcularSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("150");
+    }
+
+    @Test
+    @DisplayName("Deve recalcular o saldo a partir dos lancamentos quando o usuario ainda nao tem saldo materializado")
+    public void deveRecalcularOSaldoQuandoNaoHouverLedger() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("semledger@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 10));
+        lancamentoService.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO);
+        // como um usuario com lancamentos anteriores ao ledger
+        saldoUsuarioRepository.deleteById(usuario.getId());
+
+        //acao
+        BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(usuario.getId());
+        SaldoUsuario versionado = lancamentoService.obterSaldoVersionadoPorUsuario(usuario.getId());
+
+        //verificacao
+        Assertions.assertThat(saldo).isEqualByComparingTo(lancamentoService.recalcularSaldoPorUsuario(usuario.getId()));
+        Assertions.assertThat(versionado.getValor()).isEqualByComparingTo("10");
+        Assertions.assertThat(versionado.getVersao()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve avancar a versao do usuario a cada escrita, mesmo quando o saldo nao muda")
+    public void deveAvancarAVersaoACadaEscrita() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("versao@email.com"));
+        long inicial = lancamentoService.obterVersaoPorUsuario(usuario.getId());
+
+        //acao / verificacao
+        Lancamento pendente = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 10));
+        long aposSalvar = lancamentoService.obterVersaoPorUsuario(usuario.getId());
+        Assertions.assertThat(aposSalvar).isGreaterThan(inicial);
+
+        lancamentoService.importar(new ArrayList<>(List.of(criarLancamento(usuario, TipoLancamento.DESPESA, 5))));
+        long aposImportar = lancamentoService.obterVersaoPorUsuario(usuario.getId());
+        Assertions.assertThat(aposImportar).isGreaterThan(aposSalvar);
+
+        pendente.setDescricao("outra descricao");
+        lancamentoService.atualizar(pendente);
+        Assertions.assertThat(lancamentoService.obterVersaoPorUsuario(usuario.getId())).isGreaterThan(aposImportar);
+        Assertions.assertThat(lancamentoService.obterVersaoPorLancamento(pendente.getId()))
+                .contains(new VersaoUsuario(usuario.getId(), lancamentoService.obterVersaoPorUsuario(usuario.getId())));
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Deve manter o saldo ao trocar o status com update direto, individual, por ids e por periodo")
+    public void deveManterOSaldoAoTrocarOStatusComUpdateDireto() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("status@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+        Lancamento despesa = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 30));
+        Lancamento outraDespesa = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.DESPESA, 20));
+        Lancamento deOutroMes = criarLancamento(usuario, TipoLancamento.DESPESA, 5);
+        deOutroMes.setMes(2);
+        lancamentoService.salvar(deOutroMes);
+
+        //acao / verificacao
+        LancamentoProjecao efetivada = lancamentoService.atualizarStatus(receita.getId(), StatusLancamento.EFETIVADO);
+        Assertions.assertThat(efetivada.status()).isEqualTo(StatusLancamento.EFETIVADO);
+        Assertions.assertThat(efetivada.dataCadastro()).isEqualTo(receita.getDataCadastro());
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("100");
+
+        int atualizados = lancamentoService.atualizarStatus(List.of(receita.getId(), despesa.getId(), despesa.getId()), StatusLancamento.CANCELADO);
+        Assertions.assertThat(atualizados).isEqualTo(2);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+
+        atualizados = lancamentoService.atualizarStatusDosPendentes(usuario.getId(), 2021, 1, StatusLancamento.EFETIVADO);
+        Assertions.assertThat(atualizados).isEqualTo(1);
+        Assertions.assertThat(lancamentoService.obterProjecaoPorId(outraDespesa.getId()).get().status()).isEqualTo(StatusLancamento.EFETIVADO);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-20");
+        Assertions.assertThat(lancamentoService.recalcularSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-20");
+    }
+
+    @Test
+    @DisplayName("Nao deve alterar status nem saldo quando algum id do lote nao existe")
+    public void naoDeveAlterarStatusQuandoAlgumIdNaoExiste() {
+        //cenario
+        Usuario usuario = usuarioRepository.save(criarUsuario("status-lote@email.com"));
+        Lancamento receita = lancamentoService.salvar(criarLancamento(usuario, TipoLancamento.RECEITA, 100));
+
+        //acao
+        Throwable erro = Assertions.catchThrowable(() ->
+                lancamentoService.atualizarStatus(List.of(receita.getId(), -1L), StatusLancamento.EFETIVADO));
+
+        //verificacao
+        Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+        Assertions.assertThat(lancamentoService.obterProjecaoPorId(receita.getId()).get().status()).isEqualTo(StatusLancamento.PENDENTE);
+        Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("0");
+    }
+
+    private Lancamento criarLancamento(Usuario usuario, TipoLancamento tipo, int valor) {
+        return Lancamento.builder().ano(2021).mes(1).descricao("lancamento qualquer").valor(BigDecimal.valueOf(valor))
+                .tipo(tipo).usuario(usuario).build();
+    }
+
+    private Usuario criarUsuario(String email) {
+        return Usuario.builder().nome("usuario").email(email).senha("senha").build();
+    }
+}
@@ -0,0 +1,132 @@
+package lab.info.com.finance.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lab.info.com.finance.model.entity.Usuario;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UsuarioServiceCacheTest {
+
+    @Autowired
+    UsuarioService service;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Deve consultar a base apenas na primeira busca de um usuario por id")
+    public void deveObterUsuarioPorIdDoCache() {
+        //cenario
+        Usuario usuario = service.salvarUsuario(criarUsuario("cache-id@email.com"));
+        CacheStats antes = estatisticas("usuarios");
+
+        //acao
+        Optional<Usuario> primeira = service.obterPorId(usuario.getId());
+        Optional<Usuario> segunda = service.obterPorId(usuario.getId());
+
+        //verificacao
+        Assertions.assertThat(segunda.get()).isSameAs(primeira.get());
+        CacheStats diferenca = estatisticas("usuarios").minus(antes);
+        Assertions.assertThat(diferenca.missCount()).isEqualTo(1);
+        Assertions.assertThat(diferenca.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Nao deve guardar no cache um usuario inexistente")
+    public void naoDeveGuardarUsuarioInexistente() {
+        //cenario
+        CacheStats antes = estatisticas("usuarios");
+
+        //acao
+        service.obterPorId(-1L);
+        Optional<Usuario> resultado = service.obterPorId(-1L);
+
+        //verificacao
+        Assertions.assertThat(resultado).isEmpty();
+        Assertions.assertThat(estatisticas("usuarios").minus(antes).missCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache ao salvar um usuario")
+    public void deveInvalidarOCacheAoSalvarUsuario() {
+        //cenario
+        Usuario usuario = service.salvarUsuario(criarUsuario("cache-email@email.com"));
+        Usuario emCache = service.obterPorId(usuario.getId()).get();
+        service.autenticar("cache-email@email.com", "senha");
+
+        //acao
+        usuario.setNome("outro nome");
+        usuario.setEmail("cache-email-novo@email.com");
+        service.salvarUsuario(usuario);
+
+        //verificacao
+        Usuario atualizado = service.obterPorId(usuario.getId()).get();
+        Assertions.assertThat(atualizado).isNotSameAs(emCache);
+        Assertions.assertThat(atualizado.getNome()).isEqualTo("outro nome");
+        Assertions.assertThat(Assertions.catchThrowable(() -> service.autenticar("cache-email@email.com", "senha")))
+                .hasMessage("Usuario não encontrado para o email informado");
+    }
+
+    @Test
+    @DisplayName("Deve guardar no cache o usuario sem a senha")
+    public void deveGuardarUsuarioSemSenha() {
+        //cenario
+        Usuario usuario = service.salvarUsuario(criarUsuario("cache-senha@email.com"));
+
+        //acao
+        Usuario emCache = service.obterPorId(usuario.getId()).get();
+
+        //verificacao
+        Assertions.assertThat(emCache.getSenha()).isNull();
+        Assertions.assertThat(emCache.getEmail()).isEqualTo("cache-senha@email.com");
+        Assertions.assertThat(service.autenticar("cache-senha@email.com", "senha").getId()).isEqualTo(usuario.getId());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar o cache so depois do commit da transacao que salvou o usuario")
+    public void deveInvalidarOCacheDepoisDoCommit() {
+        //cenario
+        Usuario usuario = service.salvarUsuario(criarUsuario("cache-commit@email.com"));
+        service.obterPorId(usuario.getId());
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        //acao
+        boolean emCacheAntesDoCommit = transacao.execute(status -> {
+            usuario.setEmail("cache-commit-novo@email.com");
+            service.salvarUsuario(usuario);
+            return cacheManager.getCache("usuarios").get(usuario.getId()) != null;
+        });
+
+        //verificacao
+        Assertions.assertThat(emCacheAntesDoCommit).isTrue();
+        Assertions.assertThat(cacheManager.getCache("usuarios").get(usuario.getId())).isNull();
+    }
+
+    private CacheStats estatisticas(String nome) {
+        return ((CaffeineCache) cacheManager.getCache(nome)).getNativeCache().stats();
+    }
+
+    private Usuario criarUsuario(String email) {
+        return Usuario.builder().nome("usuario").email(email).senha("senha").build();
+    }
+}
@@ -0,0 +1,77 @@
+package lab.info.com.finance.service.projecao;
+
+import lab.info.com.finance.model.entity.EventoLancamento;
+import lab.info.com.finance.model.enums.StatusLancamento;
+import lab.info.com.finance.model.enums.TipoLancamento;
+import lab.info.com.finance.model.projection.FiltroAgregacao;
+import lab.info.com.finance.model.projection.GrupoLancamentos;
+import lab.info.com.finance.model.projection.LancamentoEstado;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ColunasLancamentosTest {
+
+    @Test
+    @DisplayName("Deve manter o indice por id igual a um mapa de referencia entre insercoes e remocoes")
+    public void deveManterOIndiceIgualAoMapa() {
+        //cenario
+        Random random = new Random(7);
+        ColunasLancamentos.IndicePorId indice = new ColunasLancamentos.IndicePorId(4);
+        Map<Long, Integer> referencia = new HashMap<>();
+
+        //acao
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                indice.remover(id);
+                referencia.remove(id);
+            } else {
+                indice.colocar(id, i);
+                referencia.put(id, i);
+            }
+        }
+
+        //verificacao
+        for (long id = 0; id <= 2_001; id++) {
+            Assertions.assertThat(indice.linha(id)).isEqualTo(referencia.getOrDefault(id, -1));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve aplicar os eventos pela linha do id depois de remocoes que trocam as linhas de lugar")
+    public void deveAplicarPeloIdDepoisDasRemocoes() {
+        //cenario
+        ColunasLancamentos colunas = new ColunasLancamentos();
+        for (long id = 1; id <= 100; id++) {
+            colunas.adicionar(new LancamentoEstado(id, 1L, 2021, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.ONE));
+        }
+
+        //acao
+        for (long id = 1; id <= 100; id += 2) {
+            colunas.aplicar(evento(id, -1, StatusLancamento.PENDENTE));
+        }
+        for (long id = 2; id <= 100; id += 2) {
+            colunas.aplicar(evento(id, 1, StatusLancamento.EFETIVADO));
+        }
+
+        //verificacao
+        List<GrupoLancamentos> grupos = colunas.agregar(FiltroAgregacao.TODOS, Set.of());
+        Assertions.assertThat(colunas.tamanho()).isEqualTo(50);
+        Assertions.assertThat(colunas.agregar(new FiltroAgregacao(null, null, null, StatusLancamento.EFETIVADO), Set.of()))
+                .extracting(GrupoLancamentos::quantidade).containsExactly(50L);
+        Assertions.assertThat(grupos).extracting(GrupoLancamentos::valor).containsExactly(new BigDecimal("50.00"));
+    }
+
+    private EventoLancamento evento(long id, int sinal, StatusLancamento status) {
+        return EventoLancamento.builder().idLancamento(id).idUsuario(1L).ano(2021).mes(1).tipo(TipoLancamento.DESPESA)
+                .status(status).valor(BigDecimal.ONE).sinal(sinal).build();
+    }
+}